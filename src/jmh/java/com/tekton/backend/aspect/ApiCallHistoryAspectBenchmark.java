@@ -0,0 +1,120 @@
+package com.tekton.backend.aspect;
+
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.service.BenchmarkFixtures;
+import com.tekton.backend.service.CalculationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobrecosto del advice ApiCallHistoryAspect.logApiCall en el hilo de la petición: proxy AOP, lectura
+ * del request, estadísticas de latencia y construcción del registro de historial. La serialización de
+ * los cuerpos ocurre en el hilo de escritura y la mide {@code ApiCallHistoryMappingBenchmark}.
+ * {@code direct} es la línea base sin aspecto y {@code advisedSampledOut} mide una llamada descartada
+ * por el muestreo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiCallHistoryAspectBenchmark {
+
+    /**
+     * Endpoint equivalente a CalculationController.calculate.
+     */
+    public static class CalculationEndpoint {
+
+        private final CalculationService calculationService;
+
+        public CalculationEndpoint(CalculationService calculationService) {
+            this.calculationService = calculationService;
+        }
+
+        @LogApiCall
+        public ResponseEntity<CalculationResponse> calculate(CalculationRequest request) {
+            return ResponseEntity.ok(calculationService.calculate(request));
+        }
+
+        @LogApiCall(sampleRate = 0)
+        public ResponseEntity<CalculationResponse> calculateSampledOut(CalculationRequest request) {
+            return ResponseEntity.ok(calculationService.calculate(request));
+        }
+    }
+
+    /**
+     * Request HTTP simulado por hilo, como lo expone Spring MVC en RequestContextHolder.
+     */
+    @State(Scope.Thread)
+    public static class RequestContext {
+
+        @Setup(Level.Trial)
+        public void bind() {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculate");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        }
+
+        @TearDown(Level.Trial)
+        public void unbind() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private CalculationEndpoint direct;
+    private CalculationEndpoint advised;
+    private CalculationRequest request;
+
+    @Setup
+    public void setUp() {
+        direct = new CalculationEndpoint(new CalculationService(BenchmarkFixtures.warmPercentageCacheService(), null));
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ApiCallHistoryAspect(BenchmarkFixtures.historyServiceWithoutPersistence(),
+                BenchmarkFixtures.latencyStatsService()));
+        advised = factory.getProxy();
+
+        request = new CalculationRequest(5.0, 5.0, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<CalculationResponse> direct(RequestContext context) {
+        return direct.calculate(request);
+    }
+
+    @Benchmark
+    public ResponseEntity<CalculationResponse> advised(RequestContext context) {
+        return advised.calculate(request);
+    }
+
+    @Benchmark
+    public ResponseEntity<CalculationResponse> advisedSampledOut(RequestContext context) {
+        return advised.calculateSampledOut(request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseEntity<CalculationResponse> advisedConcurrent(RequestContext context) {
+        return advised.calculate(request);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.dto.ApiCallHistoryResponse;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.entity.ApiCallHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de entidad a DTO en ApiCallHistoryService.toResponse (por cada fila del listado) y
+ * serialización de los objetos capturados por el aspecto en el hilo de escritura
+ * (HistoryPayloadCodec.compress).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiCallHistoryMappingBenchmark {
+
+    private ApiCallHistoryService apiCallHistoryService;
+    private ApiCallHistory history;
+    private HistoryPayloadCodec payloadCodec;
+    private CalculationRequest request;
+    private CalculationResponse response;
+
+    @Setup
+    public void setUp() {
+        apiCallHistoryService = BenchmarkFixtures.historyServiceWithoutPersistence();
+        history = BenchmarkFixtures.sampleHistory();
+        payloadCodec = new HistoryPayloadCodec(new JacksonConfig().objectMapper());
+        request = new CalculationRequest(5.0, 5.0, null);
+        response = new CalculationResponse(11.0, 5.0, 5.0, 10.0, 10.0, LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+
+    @Benchmark
+    public ApiCallHistoryResponse toResponse() {
+        return apiCallHistoryService.toResponse(history);
+    }
+
+    @Benchmark
+    public ApiCallHistory serializeCapturedPayloads() {
+        ApiCallHistory captured = ApiCallHistory.builder()
+                .requestPayload(request)
+                .responsePayload(response)
+                .maxPayloadBytes(65536)
+                .build();
+        payloadCodec.compress(captured);
+        return captured;
+    }
+}
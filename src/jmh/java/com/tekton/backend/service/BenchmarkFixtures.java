@@ -0,0 +1,110 @@
+package com.tekton.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.entity.ApiCallHistory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Objetos compartidos por los benchmarks, construidos sin contexto de Spring.
+ */
+public final class BenchmarkFixtures {
+
+    public static final double PERCENTAGE = 10.0;
+
+    /**
+     * Claves cargadas en {@link #warmRatePercentageService()}.
+     */
+    public static final int RATE_KEYS = 10_000;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Servicio de porcentaje en modo refresh-ahead con el caché ya caliente, de modo que
+     * getPercentage() recorre siempre el camino de acierto en caché.
+     */
+    public static PercentageCacheService warmPercentageCacheService() {
+        ExternalPercentageService upstream = new ExternalPercentageService(null, null, null, null, null, null) {
+            @Override
+            public Double getPercentage() {
+                return PERCENTAGE;
+            }
+        };
+        PercentageCacheService service = new PercentageCacheService(
+                Caffeine.newBuilder().maximumSize(1).build(), upstream, mock(TaskScheduler.class));
+        ReflectionTestUtils.setField(service, "mode", PercentageCacheService.MODE_REFRESH_AHEAD);
+        ReflectionTestUtils.setField(service, "refreshIntervalMs", 60000L);
+        ReflectionTestUtils.setField(service, "maxStalenessMs", TimeUnit.DAYS.toMillis(1));
+        service.refresh();
+        return service;
+    }
+
+    /**
+     * Servicio de porcentajes por clave con {@link #RATE_KEYS} claves ya cargadas en un caché
+     * configurado como el de la aplicación.
+     */
+    public static RatePercentageService warmRatePercentageService() {
+        AsyncLoadingCache<String, Double> cache = Caffeine.newBuilder()
+                .maximumSize(RATE_KEYS)
+                .refreshAfterWrite(1, TimeUnit.DAYS)
+                .expireAfterWrite(1, TimeUnit.DAYS)
+                .recordStats()
+                .buildAsync(key -> PERCENTAGE);
+        RatePercentageService service = new RatePercentageService(cache);
+        List<String> keys = new ArrayList<>(RATE_KEYS);
+        for (int i = 0; i < RATE_KEYS; i++) {
+            keys.add(rateKey(i));
+        }
+        service.getPercentages(keys);
+        return service;
+    }
+
+    public static String rateKey(int index) {
+        return "product-" + index;
+    }
+
+    /**
+     * Servicio de historial con un escritor que descarta los registros: mide la construcción
+     * del registro sin persistencia.
+     */
+    public static ApiCallHistoryService historyServiceWithoutPersistence() {
+        return new ApiCallHistoryService(null, history -> {
+        }, new HistoryPayloadCodec(new JacksonConfig().objectMapper()));
+    }
+
+    /**
+     * Estadísticas de latencia con la configuración por defecto.
+     */
+    public static LatencyStatsService latencyStatsService() {
+        LatencyStatsService service = new LatencyStatsService();
+        ReflectionTestUtils.setField(service, "slotSeconds", 10);
+        ReflectionTestUtils.setField(service, "windowsSeconds", new int[]{60, 300});
+        ReflectionTestUtils.setField(service, "maxEndpoints", 50);
+        ReflectionTestUtils.setField(service, "stripes", 4);
+        service.init();
+        return service;
+    }
+
+    public static ApiCallHistory sampleHistory() {
+        return ApiCallHistory.builder()
+                .id(42L)
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .endpoint("/api/calculate")
+                .method("POST")
+                .requestBody("{\"num1\":5.0,\"num2\":5.0}")
+                .responseBody("{\"result\":11.0,\"num1\":5.0,\"num2\":5.0,\"sum\":10.0,\"percentage\":10.0}")
+                .statusCode(200)
+                .executionTimeMs(3L)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalculationService.calculate con el porcentaje servido desde el caché, global o por clave
+ * (un caché de {@link BenchmarkFixtures#RATE_KEYS} claves, leídas en orden).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculationServiceBenchmark {
+
+    private CalculationService calculationService;
+    private CalculationRequest request;
+    private CalculationRequest[] keyedRequests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        calculationService = new CalculationService(BenchmarkFixtures.warmPercentageCacheService(),
+                BenchmarkFixtures.warmRatePercentageService());
+        request = new CalculationRequest(5.0, 5.0, null);
+        keyedRequests = new CalculationRequest[BenchmarkFixtures.RATE_KEYS];
+        for (int i = 0; i < keyedRequests.length; i++) {
+            keyedRequests[i] = new CalculationRequest(5.0, 5.0, BenchmarkFixtures.rateKey(i));
+        }
+    }
+
+    @Benchmark
+    public CalculationResponse calculate() {
+        return calculationService.calculate(request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CalculationResponse calculateConcurrent() {
+        return calculationService.calculate(request);
+    }
+
+    @Benchmark
+    public CalculationResponse calculateWithRateKey() {
+        next = (next + 1) % keyedRequests.length;
+        return calculationService.calculate(keyedRequests[next]);
+    }
+}
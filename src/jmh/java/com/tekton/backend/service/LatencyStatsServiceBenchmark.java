@@ -0,0 +1,45 @@
+package com.tekton.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de una latencia en LatencyStatsService, el coste que el aspecto añade a cada petición.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyStatsServiceBenchmark {
+
+    private LatencyStatsService latencyStatsService;
+
+    @Setup
+    public void setUp() {
+        latencyStatsService = BenchmarkFixtures.latencyStatsService();
+    }
+
+    @Benchmark
+    public void record() {
+        latencyStatsService.record("POST /api/calculate", 3_250, false);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordConcurrent() {
+        latencyStatsService.record("POST /api/calculate", 3_250, false);
+    }
+}
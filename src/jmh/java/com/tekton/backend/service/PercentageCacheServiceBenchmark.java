@@ -0,0 +1,45 @@
+package com.tekton.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino de acierto en caché de PercentageCacheService.getPercentage (modo refresh-ahead).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PercentageCacheServiceBenchmark {
+
+    private PercentageCacheService percentageCacheService;
+
+    @Setup
+    public void setUp() {
+        percentageCacheService = BenchmarkFixtures.warmPercentageCacheService();
+    }
+
+    @Benchmark
+    public Double getPercentageCacheHit() {
+        return percentageCacheService.getPercentage();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Double getPercentageCacheHitConcurrent() {
+        return percentageCacheService.getPercentage();
+    }
+}
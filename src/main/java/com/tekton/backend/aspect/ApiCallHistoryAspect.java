@@ -1,22 +1,36 @@
 package com.tekton.backend.aspect;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.filter.HistoryCaptureFilter;
+import com.tekton.backend.filter.WireCapture;
 import com.tekton.backend.service.ApiCallHistoryService;
+import com.tekton.backend.service.LatencyStatsService;
+import com.tekton.backend.util.ServerTiming;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Aspecto AOP para registrar automáticamente el historial de llamadas a la API.
  * Se ejecuta de forma asíncrona para no afectar el rendimiento de las peticiones.
+ * Qué llamadas se registran y con qué cuerpos lo deciden los atributos de {@link LogApiCall} y la
+ * configuración {@code history.capture.*}. En el hilo de la petición solo se capturan referencias a los
+ * objetos de petición y respuesta y la duración con {@code System.nanoTime}. Con {@link HistoryCaptureFilter}
+ * activo se guardan los bytes del cuerpo HTTP; si no, la serialización a JSON se hace en el hilo de
+ * escritura del historial ({@link com.tekton.backend.service.HistoryPayloadCodec}).
+ * Si el endpoint retorna un {@link CompletableFuture}, la llamada se registra al completarse.
+ * Además alimenta las estadísticas de latencia en memoria ({@link LatencyStatsService}).
  */
 @Slf4j
 @Aspect
@@ -25,94 +39,188 @@ import java.time.LocalDateTime;
 public class ApiCallHistoryAspect {
 
     private final ApiCallHistoryService apiCallHistoryService;
-    private final ObjectMapper objectMapper;
+    private final LatencyStatsService latencyStatsService;
 
-    @Around("@annotation(com.tekton.backend.aspect.LogApiCall)")
-    public Object logApiCall(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
+    @Value("${history.capture.sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    @Value("${history.capture.bodies:ALWAYS}")
+    private LogApiCall.Capture captureBodies = LogApiCall.Capture.ALWAYS;
+
+    @Value("${history.capture.slow-threshold-ms:1000}")
+    private long slowThresholdMs = 1000;
+
+    @Value("${history.capture.max-payload-bytes:65536}")
+    private int maxPayloadBytes = 65536;
+
+    @Value("${history.capture.always-log-errors:true}")
+    private boolean alwaysLogErrors = true;
+
+    @Around("@annotation(logApiCall)")
+    public Object logApiCall(ProceedingJoinPoint joinPoint, LogApiCall logApiCall) throws Throwable {
+        long startNanos = System.nanoTime();
         LocalDateTime timestamp = LocalDateTime.now();
         
         HttpServletRequest request = getRequest();
         String endpoint = request != null ? request.getRequestURI() : "unknown";
         String method = request != null ? request.getMethod() : "unknown";
-        
-        String requestBody = extractRequestBody(joinPoint);
-        String responseBody = null;
-        Integer statusCode = 200;
-        String errorMessage = null;
+        Object result;
 
         try {
             // Ejecutar el método
-            Object result = joinPoint.proceed();
-            
-            // Extraer respuesta y status code
-            if (result instanceof org.springframework.http.ResponseEntity) {
-                org.springframework.http.ResponseEntity<?> responseEntity = (org.springframework.http.ResponseEntity<?>) result;
-                statusCode = responseEntity.getStatusCode().value();
-                responseBody = extractResponseBody(responseEntity.getBody());
-            } else {
-                responseBody = extractResponseBody(result);
-            }
-            
-            long executionTime = System.currentTimeMillis() - startTime;
-            
-            // Guardar historial de forma asíncrona
-            apiCallHistoryService.saveHistory(timestamp, endpoint, method, requestBody, responseBody, statusCode, executionTime, null);
-            
-            return result;
-            
+            result = joinPoint.proceed();
         } catch (Exception e) {
-            statusCode = 500;
-            errorMessage = e.getMessage();
-            long executionTime = System.currentTimeMillis() - startTime;
-            
-            // Guardar historial con error de forma asíncrona
-            apiCallHistoryService.saveHistory(timestamp, endpoint, method, requestBody, null, statusCode, executionTime, errorMessage);
-            
+            afterThrowing(joinPoint, logApiCall, request, request, timestamp, endpoint, method, startNanos, e);
             throw e;
         }
+
+        if (result instanceof CompletableFuture<?> future) {
+            // Procesamiento asíncrono: se registra al completarse, antes de que Spring escriba la respuesta.
+            // La captura del filtro ya terminó, por lo que los cuerpos se toman de los objetos
+            return future.whenComplete((value, error) -> {
+                if (error != null) {
+                    afterThrowing(joinPoint, logApiCall, request, null, timestamp, endpoint, method, startNanos,
+                            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    afterReturning(joinPoint, logApiCall, request, null, timestamp, endpoint, method, startNanos, value);
+                }
+            });
+        }
+
+        afterReturning(joinPoint, logApiCall, request, request, timestamp, endpoint, method, startNanos, result);
+        return result;
+    }
+
+    /**
+     * @param wireRequest Petición de la que tomar los bytes capturados por el filtro, o null para usar los objetos
+     */
+    private void afterThrowing(ProceedingJoinPoint joinPoint, LogApiCall logApiCall, HttpServletRequest request,
+                               HttpServletRequest wireRequest, LocalDateTime timestamp, String endpoint, String method,
+                               long startNanos, Throwable e) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        recordLatency(request, method, endpoint, elapsedNanos, true);
+
+        // Guardar historial con error de forma asíncrona
+        CapturePolicy policy = policy(logApiCall);
+        boolean slow = policy.isSlow(elapsedNanos);
+        if (policy.shouldRecord(true, slow)) {
+            recordHistory(wireRequest, timestamp, endpoint, method, policy.captureBodies(true, slow) ? joinPoint : null,
+                    null, policy.maxPayloadBytes(), 500, elapsedNanos, e.getMessage());
+        }
     }
 
-    private HttpServletRequest getRequest() {
+    private void afterReturning(ProceedingJoinPoint joinPoint, LogApiCall logApiCall, HttpServletRequest request,
+                                HttpServletRequest wireRequest, LocalDateTime timestamp, String endpoint, String method,
+                                long startNanos, Object result) {
+        // Extraer respuesta y status code
+        Integer statusCode = 200;
+        Object responsePayload = result;
+        if (result instanceof org.springframework.http.ResponseEntity) {
+            org.springframework.http.ResponseEntity<?> responseEntity = (org.springframework.http.ResponseEntity<?>) result;
+            statusCode = responseEntity.getStatusCode().value();
+            responsePayload = responseEntity.getBody();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        boolean error = statusCode >= 400;
+        recordLatency(request, method, endpoint, elapsedNanos, error);
+
+        CapturePolicy policy = policy(logApiCall);
+        boolean slow = policy.isSlow(elapsedNanos);
+        if (policy.shouldRecord(error, slow)) {
+            boolean bodies = policy.captureBodies(error, slow);
+            recordHistory(wireRequest, timestamp, endpoint, method, bodies ? joinPoint : null,
+                    bodies ? responsePayload : null, policy.maxPayloadBytes(), statusCode, elapsedNanos, null);
+        }
+    }
+
+    private CapturePolicy policy(LogApiCall logApiCall) {
+        return CapturePolicy.resolve(logApiCall, sampleRate, captureBodies, slowThresholdMs, maxPayloadBytes,
+                alwaysLogErrors);
+    }
+
+    /**
+     * Entrega el registro al servicio de historial. Si {@link HistoryCaptureFilter} está activo y se
+     * capturan cuerpos, el registro se completa al terminar la petición con los bytes leídos y escritos
+     * en la conexión; si no, con los objetos de petición y respuesta, que se serializan en el hilo de escritura.
+     *
+     * @param bodiesFrom Invocación de la que tomar el cuerpo de la petición, o null para no capturar cuerpos
+     */
+    private void recordHistory(HttpServletRequest request, LocalDateTime timestamp, String endpoint, String method,
+                               ProceedingJoinPoint bodiesFrom, Object responsePayload, int maxPayloadBytes,
+                               Integer statusCode, long elapsedNanos, String errorMessage) {
+        Long executionTimeMs = elapsedNanos / 1_000_000;
+        WireCapture wireCapture = bodiesFrom != null ? WireCapture.of(request) : null;
+        if (wireCapture == null) {
+            Object requestPayload = bodiesFrom != null ? requestArgument(bodiesFrom) : null;
+            saveHistory(timestamp, endpoint, method, requestPayload, responsePayload, maxPayloadBytes, statusCode,
+                    executionTimeMs, errorMessage);
+            return;
+        }
+        // Respaldo si el cuerpo no pasó por el filtro (parámetros de formulario, Writer o procesamiento asíncrono)
+        Object requestPayload = requestArgument(bodiesFrom);
+        wireCapture.onComplete(maxPayloadBytes, responsePayload != null, (requestBody, responseBody) ->
+                saveHistory(timestamp, endpoint, method, requestBody != null ? requestBody : requestPayload,
+                        responseBody != null ? responseBody : responsePayload, maxPayloadBytes, statusCode,
+                        executionTimeMs, errorMessage));
+    }
+
+    /**
+     * Cualquier fallo del registro se registra en el log y nunca se propaga: la captura del historial
+     * no debe afectar la respuesta.
+     */
+    private void saveHistory(LocalDateTime timestamp, String endpoint, String method, Object requestPayload,
+                             Object responsePayload, int maxPayloadBytes, Integer statusCode, Long executionTimeMs,
+                             String errorMessage) {
+        long start = ServerTiming.start();
         try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            return attributes != null ? attributes.getRequest() : null;
+            apiCallHistoryService.saveCapturedCall(timestamp, endpoint, method, requestPayload, responsePayload,
+                    maxPayloadBytes, statusCode, executionTimeMs, errorMessage);
+            ServerTiming.record(ServerTiming.Stage.HISTORY_ENQUEUE, start);
         } catch (Exception e) {
-            log.warn("No se pudo obtener el request: {}", e.getMessage());
-            return null;
+            log.warn("No se pudo registrar el historial para {}: {}", endpoint, e.getMessage());
         }
     }
 
-    private String extractRequestBody(ProceedingJoinPoint joinPoint) {
+    /**
+     * Registra la latencia por método y patrón de la ruta (p. ej. "GET /api/history/{id}"), de modo que
+     * las variables de ruta no multipliquen las claves.
+     */
+    private void recordLatency(HttpServletRequest request, String method, String endpoint, long elapsedNanos,
+                               boolean error) {
         try {
-            Object[] args = joinPoint.getArgs();
-            if (args != null && args.length > 0) {
-                // Buscar el primer argumento que no sea HttpServletRequest/Response
-                for (Object arg : args) {
-                    if (arg != null && 
-                        !arg.getClass().getName().startsWith("jakarta.servlet") &&
-                        !arg.getClass().getName().startsWith("javax.servlet")) {
-                        return objectMapper.writeValueAsString(arg);
-                    }
-                }
-            }
-            return null;
+            Object pattern = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : null;
+            latencyStatsService.record(method + " " + (pattern != null ? pattern : endpoint),
+                    elapsedNanos / 1_000, error);
         } catch (Exception e) {
-            log.warn("Error al extraer request body: {}", e.getMessage());
-            return null;
+            log.warn("No se pudo registrar la latencia para {}: {}", endpoint, e.getMessage());
         }
     }
 
-    private String extractResponseBody(Object result) {
+    private HttpServletRequest getRequest() {
         try {
-            if (result != null) {
-                return objectMapper.writeValueAsString(result);
-            }
-            return null;
+            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+            return attributes != null ? attributes.getRequest() : null;
         } catch (Exception e) {
-            log.warn("Error al extraer response body: {}", e.getMessage());
+            log.warn("No se pudo obtener el request: {}", e.getMessage());
             return null;
         }
     }
 
+    /**
+     * @return Primer argumento que no sea del API de servlets (el cuerpo de la petición), o null
+     */
+    private Object requestArgument(ProceedingJoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg != null &&
+                    !arg.getClass().getName().startsWith("jakarta.servlet") &&
+                    !arg.getClass().getName().startsWith("javax.servlet")) {
+                    return arg;
+                }
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,58 @@
+package com.tekton.backend.aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Política de captura de una llamada: resultado de combinar los atributos de {@link LogApiCall}
+ * con la configuración global.
+ *
+ * @param sampleRate Fracción de llamadas normales que se registran
+ * @param bodies Cuándo se guardan los cuerpos (nunca {@link LogApiCall.Capture#DEFAULT})
+ * @param slowThresholdNanos Umbral de llamada lenta; 0 si no aplica
+ * @param maxPayloadBytes Tamaño máximo de cada cuerpo; 0 si no hay límite
+ * @param alwaysLogErrors Si los errores no se muestrean
+ */
+record CapturePolicy(double sampleRate, LogApiCall.Capture bodies, long slowThresholdNanos, int maxPayloadBytes,
+                     boolean alwaysLogErrors) {
+
+    static CapturePolicy resolve(LogApiCall annotation, double defaultSampleRate, LogApiCall.Capture defaultBodies,
+                                 long defaultSlowThresholdMs, int defaultMaxPayloadBytes, boolean defaultAlwaysLogErrors) {
+        double sampleRate = annotation.sampleRate() >= 0 ? annotation.sampleRate() : defaultSampleRate;
+        LogApiCall.Capture bodies = annotation.captureBodies() != LogApiCall.Capture.DEFAULT
+                ? annotation.captureBodies() : defaultBodies;
+        long slowThresholdMs = annotation.slowThresholdMs() >= 0 ? annotation.slowThresholdMs() : defaultSlowThresholdMs;
+        int maxPayloadBytes = annotation.maxPayloadBytes() >= 0 ? annotation.maxPayloadBytes() : defaultMaxPayloadBytes;
+        boolean alwaysLogErrors = switch (annotation.alwaysLogErrors()) {
+            case TRUE -> true;
+            case FALSE -> false;
+            case DEFAULT -> defaultAlwaysLogErrors;
+        };
+        return new CapturePolicy(sampleRate, bodies == LogApiCall.Capture.DEFAULT ? LogApiCall.Capture.ALWAYS : bodies,
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, slowThresholdMs)), Math.max(0, maxPayloadBytes),
+                alwaysLogErrors);
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return slowThresholdNanos > 0 && elapsedNanos >= slowThresholdNanos;
+    }
+
+    /**
+     * @return true si la llamada se registra: errores (con alwaysLogErrors) y llamadas lentas siempre,
+     *         el resto según la tasa de muestreo
+     */
+    boolean shouldRecord(boolean error, boolean slow) {
+        if ((error && alwaysLogErrors) || slow || sampleRate >= 1) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    boolean captureBodies(boolean error, boolean slow) {
+        return switch (bodies) {
+            case NEVER -> false;
+            case ON_ERROR_OR_SLOW -> error || slow;
+            default -> true;
+        };
+    }
+}
@@ -8,8 +8,54 @@ import java.lang.annotation.Target;
 /**
  * Anotación para marcar métodos que deben registrar su ejecución en el historial.
  * Se usa en conjunto con ApiCallHistoryAspect para registro asíncrono.
+ *
+ * Los atributos sin valor explícito toman la configuración global {@code history.capture.*}.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LogApiCall {
+
+    /**
+     * Fracción de llamadas exitosas que se registran, entre 0 y 1. Los errores (si se registran siempre)
+     * y las llamadas lentas no se muestrean. Un valor negativo usa {@code history.capture.sample-rate}.
+     */
+    double sampleRate() default -1;
+
+    /**
+     * Cuándo se guardan los cuerpos de petición y respuesta.
+     */
+    Capture captureBodies() default Capture.DEFAULT;
+
+    /**
+     * Duración a partir de la cual una llamada se considera lenta. Un valor negativo usa
+     * {@code history.capture.slow-threshold-ms}; 0 desactiva la detección.
+     */
+    long slowThresholdMs() default -1;
+
+    /**
+     * Tamaño máximo (bytes UTF-8) de cada cuerpo guardado; los mayores se truncan. Un valor negativo
+     * usa {@code history.capture.max-payload-bytes}; 0 no limita.
+     */
+    int maxPayloadBytes() default -1;
+
+    /**
+     * Si los errores se registran siempre, sin muestreo.
+     */
+    Toggle alwaysLogErrors() default Toggle.DEFAULT;
+
+    enum Capture {
+        /** Usa {@code history.capture.bodies}. */
+        DEFAULT,
+        ALWAYS,
+        /** Solo en llamadas con error o lentas. */
+        ON_ERROR_OR_SLOW,
+        NEVER
+    }
+
+    enum Toggle {
+        /** Usa {@code history.capture.always-log-errors}. */
+        DEFAULT,
+        TRUE,
+        FALSE
+    }
 }
@@ -3,14 +3,22 @@ package com.tekton.backend.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuración de ejecución asíncrona para el registro de historial de llamadas.
  * Permite que el registro no afecte el rendimiento de las peticiones principales.
+ *
+ * Con {@code spring.threads.virtual.enabled=true} Tomcat atiende las peticiones en hilos virtuales
+ * y el historial se persiste en hilos virtuales sin pool: como mucho {@code virtual-concurrency-limit}
+ * usan JDBC a la vez, para no agotar las conexiones que usan las peticiones, y hasta {@code queue-capacity}
+ * más esperan su turno, como la cola del pool de hilos.
  */
 @Configuration
 @EnableAsync
@@ -28,16 +36,59 @@ public class AsyncConfig {
     @Value("${async.executor.thread-name-prefix:api-history-}")
     private String threadNamePrefix;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${async.executor.virtual-concurrency-limit:8}")
+    private int virtualConcurrencyLimit;
+
+    /**
+     * Executor del historial. Rechaza las tareas cuando está saturado: el rechazo lo captura el
+     * escritor de historial y lo resuelve la política de sobrecarga configurada (async.executor.overload-policy).
+     */
     @Bean(name = "apiHistoryExecutor")
-    public Executor apiHistoryExecutor() {
+    public AsyncTaskExecutor apiHistoryExecutor() {
+        if (virtualThreads) {
+            return virtualExecutor(threadNamePrefix, virtualConcurrencyLimit, queueCapacity);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor de hilos virtuales. Cada tarea espera en su propio hilo virtual un permiso de un semáforo de
+     * {@code concurrencyLimit} permisos antes de ejecutarse (la espera no fija el hilo portador); se rechaza
+     * solo cuando ya hay {@code concurrencyLimit + queueCapacity} tareas en curso o en espera.
+     */
+    public static SimpleAsyncTaskExecutor virtualExecutor(String threadNamePrefix, int concurrencyLimit, int queueCapacity) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrencyLimit));
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, concurrencyLimit) + Math.max(0, queueCapacity));
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskDecorator(task -> () -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+        executor.setTaskTerminationTimeout(60_000);
+        return executor;
+    }
 }
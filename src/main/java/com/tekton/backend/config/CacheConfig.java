@@ -1,17 +1,35 @@
 package com.tekton.backend.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tekton.backend.service.ExternalPercentageService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Configuración de Caffeine Cache para almacenar el porcentaje obtenido del servicio externo.
  * TTL: 30 minutos
+ *
+ * Los porcentajes por clave (tenant o producto) usan un caché de carga aparte, acotado por tamaño,
+ * con refresco por clave y carga de varias claves por petición al servicio externo.
  */
 @Configuration
 @EnableCaching
@@ -19,6 +37,27 @@ public class CacheConfig {
 
     public static final String PERCENTAGE_CACHE_KEY = "percentage";
     public static final String PERCENTAGE_CACHE_NAME = "percentageCache";
+    public static final String PERCENTAGE_RATES_CACHE_NAME = "percentageRatesCache";
+
+    /**
+     * Valor en caché de una clave que el servicio externo no conoce (caché negativo).
+     */
+    public static final Double UNKNOWN_RATE = Double.NaN;
+
+    @Value("${percentage.rates.max-keys:10000}")
+    private long ratesMaxKeys;
+
+    @Value("${percentage.rates.refresh-after-ms:60000}")
+    private long ratesRefreshAfterMs;
+
+    @Value("${percentage.rates.max-staleness-ms:1800000}")
+    private long ratesMaxStalenessMs;
+
+    @Value("${percentage.rates.negative-ttl-ms:5000}")
+    private long ratesNegativeTtlMs;
+
+    @Value("${percentage.rates.loader-threads:4}")
+    private int ratesLoaderThreads;
 
     /**
      * CacheManager para Spring Cache abstraction.
@@ -43,6 +82,91 @@ public class CacheConfig {
                 .build();
     }
 
+    /**
+     * Caché de porcentajes por clave.
+     * <ul>
+     *   <li>Se expulsan las claves menos usadas por encima de {@code percentage.rates.max-keys}.</li>
+     *   <li>Una clave leída después de {@code refresh-after-ms} se refresca en segundo plano mientras se
+     *       sigue sirviendo el valor actual; si el refresco falla se conserva hasta {@code max-staleness-ms}.</li>
+     *   <li>{@code getAll} carga todas las claves ausentes con una sola llamada al servicio externo
+     *       ({@link ExternalPercentageService#getPercentagesAsync}), sin bloquear un hilo mientras espera la
+     *       respuesta; las cargas concurrentes de una clave se agrupan.</li>
+     *   <li>Una clave que el servicio externo no conoce se guarda como {@link #UNKNOWN_RATE} durante
+     *       {@code negative-ttl-ms}, para no consultarla en cada petición.</li>
+     * </ul>
+     */
+    @Bean(name = PERCENTAGE_RATES_CACHE_NAME)
+    public AsyncLoadingCache<String, Double> percentageRatesCache(ExternalPercentageService externalPercentageService,
+            @Qualifier("percentageRatesExecutor") ExecutorService percentageRatesExecutor) {
+        long maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(ratesMaxStalenessMs);
+        long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(ratesNegativeTtlMs);
+        return Caffeine.newBuilder()
+                .maximumSize(ratesMaxKeys)
+                .refreshAfterWrite(ratesRefreshAfterMs, TimeUnit.MILLISECONDS)
+                .expireAfter(new Expiry<String, Double>() {
+                    @Override
+                    public long expireAfterCreate(String key, Double value, long currentTime) {
+                        return UNKNOWN_RATE.equals(value) ? negativeTtlNanos : maxStalenessNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Double value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Double value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(percentageRatesExecutor)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<String, Double>() {
+                    @Override
+                    public CompletableFuture<Double> asyncLoad(String key, Executor executor) {
+                        return asyncLoadAll(Set.of(key), executor).thenApply(percentages -> percentages.get(key));
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, Double>> asyncLoadAll(Set<? extends String> keys, Executor executor) {
+                        return externalPercentageService.getPercentagesAsync(keys).thenApply(found -> {
+                            Map<String, Double> percentages = new HashMap<>();
+                            for (String key : keys) {
+                                Double percentage = found.get(key);
+                                percentages.put(key, percentage != null ? percentage : UNKNOWN_RATE);
+                            }
+                            return percentages;
+                        });
+                    }
+                });
+    }
+
+    /**
+     * Pool del caché de porcentajes por clave (tareas de mantenimiento y recarga), de
+     * {@code percentage.rates.loader-threads} hilos. Se cierra con el contexto.
+     */
+    @Bean(name = "percentageRatesExecutor", destroyMethod = "shutdown")
+    public ExecutorService percentageRatesExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("percentage-rates-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(Math.max(1, ratesLoaderThreads), threadFactory);
+    }
+
+    /**
+     * Scheduler dedicado al refresco en segundo plano del porcentaje (modo refresh-ahead).
+     * Un único hilo es suficiente: solo existe una tarea de refresco activa a la vez.
+     * Las tareas {@code @Scheduled} usan {@link SchedulingConfig#taskScheduler}, no este scheduler.
+     */
+    @Bean(name = "percentageRefreshScheduler")
+    public ThreadPoolTaskScheduler percentageRefreshScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("percentage-refresh-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+        return scheduler;
+    }
+
     private Caffeine<Object, Object> caffeineCacheBuilder() {
         return Caffeine.newBuilder()
                 .maximumSize(100)
@@ -0,0 +1,59 @@
+package com.tekton.backend.config;
+
+import com.tekton.backend.util.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de los circuit breakers del servicio externo de porcentaje.
+ * El porcentaje global y los porcentajes por clave usan la misma configuración pero circuitos
+ * separados: los fallos de una carga de claves no abren el circuito del porcentaje global.
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    @Value("${external.service.percentage.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${external.service.percentage.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${external.service.percentage.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${external.service.percentage.circuit-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${external.service.percentage.circuit-breaker.slow-call-threshold-ms:2000}")
+    private long slowCallThresholdMs;
+
+    @Value("${external.service.percentage.circuit-breaker.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    @Value("${external.service.percentage.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Bean
+    public CircuitBreaker percentageCircuitBreaker() {
+        return circuitBreaker("external-percentage");
+    }
+
+    @Bean
+    public CircuitBreaker ratesCircuitBreaker() {
+        return circuitBreaker("external-percentage-rates");
+    }
+
+    private CircuitBreaker circuitBreaker(String name) {
+        return CircuitBreaker.builder()
+                .name(name)
+                .windowSize(windowSize)
+                .minimumCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallThresholdMs(slowCallThresholdMs)
+                .openDurationMs(openDurationMs)
+                .halfOpenPermittedCalls(halfOpenCalls)
+                .build();
+    }
+}
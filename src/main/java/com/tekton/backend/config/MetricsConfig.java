@@ -0,0 +1,173 @@
+package com.tekton.backend.config;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.tekton.backend.service.AsyncApiCallHistoryWriter;
+import com.tekton.backend.service.BatchingApiCallHistoryWriter;
+import com.tekton.backend.service.HistoryOverloadHandler;
+import com.tekton.backend.service.PercentageCacheService;
+import com.tekton.backend.util.CircuitBreaker;
+import com.tekton.backend.util.ConnectionLimitingInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas de Micrometer del pipeline de cálculo y del historial, expuestas en /actuator/metrics.
+ *
+ * <ul>
+ *   <li>{@code calculation.duration} y {@code percentage.upstream.duration}: timers de {@code @Timed}.</li>
+ *   <li>{@code percentage.lookups}: origen del porcentaje entregado (tag {@code result}: upstream,
+ *       cache, fallback o not_found).</li>
+ *   <li>{@code percentage.upstream.coalesced}: consultas unidas a una llamada al servicio externo en curso.</li>
+ *   <li>{@code cache.*} (cache=percentageCache): estadísticas de Caffeine del caché de porcentaje.</li>
+ *   <li>{@code http.client.connections.*}: conexiones en uso, esperas y timeouts de espera del pool hacia el
+ *       servicio externo.</li>
+ *   <li>{@code history.executor.queue.depth} y {@code history.executor.active}: apiHistoryExecutor,
+ *       con {@code history.writer.mode=async}.</li>
+ *   <li>{@code history.batch.*}: lotes escritos, tamaño del último lote y registros descartados, con
+ *       {@code history.writer.mode=batch}.</li>
+ *   <li>{@code history.overload.records} (tag {@code action}): registros descartados, muestreados, agregados o
+ *       derivados a disco por la política de sobrecarga.</li>
+ *   <li>{@code history.write.lag}: ver {@link com.tekton.backend.service.HistoryWriteLagRecorder}.</li>
+ *   <li>{@code circuit.breaker.*} (tag {@code name}): estado, tasas de fallos y de llamadas lentas, llamadas
+ *       rechazadas y cambios de estado de cada circuit breaker.</li>
+ * </ul>
+ * Los servicios llevan sus contadores con LongAdder; aquí solo se leen, sin costo en la petición.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder percentageMetrics(PercentageCacheService percentageCacheService,
+                                         @Qualifier("percentageCache") Cache<String, Double> percentageCache) {
+        return registry -> {
+            lookups(registry, percentageCacheService, "upstream", PercentageCacheService::getUpstreamHitCount);
+            lookups(registry, percentageCacheService, "cache", PercentageCacheService::getCacheHitCount);
+            lookups(registry, percentageCacheService, "fallback", PercentageCacheService::getCacheFallbackCount);
+            lookups(registry, percentageCacheService, "not_found", PercentageCacheService::getNotFoundCount);
+            FunctionCounter.builder("percentage.upstream.coalesced", percentageCacheService,
+                            PercentageCacheService::getCoalescedFetchCount)
+                    .description("Consultas unidas a una llamada al servicio externo ya en curso")
+                    .register(registry);
+            CaffeineCacheMetrics.monitor(registry, percentageCache, CacheConfig.PERCENTAGE_CACHE_NAME);
+        };
+    }
+
+    @Bean
+    public MeterBinder percentageRatesMetrics(
+            @Qualifier(CacheConfig.PERCENTAGE_RATES_CACHE_NAME) AsyncLoadingCache<String, Double> percentageRatesCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, percentageRatesCache, CacheConfig.PERCENTAGE_RATES_CACHE_NAME);
+    }
+
+    @Bean
+    public MeterBinder historyExecutorMetrics(ObjectProvider<AsyncApiCallHistoryWriter> asyncWriter) {
+        return registry -> asyncWriter.ifAvailable(writer -> {
+            Gauge.builder("history.executor.queue.depth", writer, AsyncApiCallHistoryWriter::getQueueDepth)
+                    .description("Tareas de historial en espera en apiHistoryExecutor")
+                    .register(registry);
+            Gauge.builder("history.executor.active", writer, AsyncApiCallHistoryWriter::getActiveCount)
+                    .description("Tareas de historial en ejecución en apiHistoryExecutor")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder percentageConnectionPoolMetrics(ConnectionLimitingInterceptor percentageConnectionPool) {
+        return registry -> {
+            Gauge.builder("http.client.connections.active", percentageConnectionPool,
+                            ConnectionLimitingInterceptor::getActiveConnections)
+                    .description("Conexiones en uso hacia el servicio externo")
+                    .register(registry);
+            Gauge.builder("http.client.connections.pending", percentageConnectionPool,
+                            ConnectionLimitingInterceptor::getPendingAcquires)
+                    .description("Peticiones esperando una conexión libre")
+                    .register(registry);
+            FunctionCounter.builder("http.client.connections.acquire.timeouts", percentageConnectionPool,
+                            ConnectionLimitingInterceptor::getAcquireTimeoutCount)
+                    .description("Peticiones que agotaron la espera por una conexión libre")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder historyBatchMetrics(ObjectProvider<BatchingApiCallHistoryWriter> batchingWriter) {
+        return registry -> batchingWriter.ifAvailable(writer -> {
+            FunctionCounter.builder("history.batch.flushes", writer, BatchingApiCallHistoryWriter::getFlushCount)
+                    .description("Lotes de historial escritos")
+                    .register(registry);
+            Gauge.builder("history.batch.last.size", writer, BatchingApiCallHistoryWriter::getLastBatchSize)
+                    .description("Registros del último lote escrito")
+                    .baseUnit("records")
+                    .register(registry);
+            FunctionCounter.builder("history.batch.dropped", writer, BatchingApiCallHistoryWriter::getDroppedCount)
+                    .description("Registros de historial descartados por cola llena")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder historyOverloadMetrics(HistoryOverloadHandler overloadHandler) {
+        return registry -> {
+            overload(registry, overloadHandler, "dropped", HistoryOverloadHandler::getDroppedCount);
+            overload(registry, overloadHandler, "sampled", HistoryOverloadHandler::getSampledCount);
+            overload(registry, overloadHandler, "coalesced", HistoryOverloadHandler::getCoalescedCount);
+            overload(registry, overloadHandler, "spilled", HistoryOverloadHandler::getSpilledCount);
+        };
+    }
+
+    @Bean
+    public MeterBinder circuitBreakerMetrics(List<CircuitBreaker> circuitBreakers) {
+        return registry -> circuitBreakers.forEach(breaker -> {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("circuit.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                        .description("1 si el circuit breaker está en el estado del tag state")
+                        .tags("name", breaker.getName(), "state", state.name().toLowerCase())
+                        .register(registry);
+            }
+            Gauge.builder("circuit.breaker.failure.rate", breaker, CircuitBreaker::getFailureRate)
+                    .description("Porcentaje de fallos en la ventana actual")
+                    .tag("name", breaker.getName())
+                    .baseUnit("percent")
+                    .register(registry);
+            Gauge.builder("circuit.breaker.slow.call.rate", breaker, CircuitBreaker::getSlowCallRate)
+                    .description("Porcentaje de llamadas lentas en la ventana actual")
+                    .tag("name", breaker.getName())
+                    .baseUnit("percent")
+                    .register(registry);
+            FunctionCounter.builder("circuit.breaker.not.permitted.calls", breaker, CircuitBreaker::getNotPermittedCount)
+                    .description("Llamadas rechazadas con el circuito abierto")
+                    .tag("name", breaker.getName())
+                    .register(registry);
+            FunctionCounter.builder("circuit.breaker.transitions", breaker, CircuitBreaker::getTransitionCount)
+                    .description("Cambios de estado del circuit breaker")
+                    .tag("name", breaker.getName())
+                    .register(registry);
+        });
+    }
+
+    private static void lookups(MeterRegistry registry, PercentageCacheService service,
+                                String result, ToDoubleFunction<PercentageCacheService> count) {
+        FunctionCounter.builder("percentage.lookups", service, count)
+                .description("Porcentajes entregados según su origen")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void overload(MeterRegistry registry, HistoryOverloadHandler handler,
+                                 String action, ToDoubleFunction<HistoryOverloadHandler> count) {
+        FunctionCounter.builder("history.overload.records", handler, count)
+                .description("Registros de historial afectados por la política de sobrecarga")
+                .tag("action", action)
+                .register(registry);
+    }
+}
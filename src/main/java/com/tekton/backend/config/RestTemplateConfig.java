@@ -1,28 +1,120 @@
 package com.tekton.backend.config;
 
+import com.tekton.backend.util.ConnectionLimitingInterceptor;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.concurrent.TimeUnit;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuración de RestTemplate para llamadas a servicios externos.
+ *
+ * Usa el HttpClient del JDK, que mantiene las conexiones abiertas (keep-alive) entre llamadas,
+ * de modo que el establecimiento TCP/TLS no forma parte de la latencia de cada petición.
+ * Las conexiones en uso se acotan con {@link ConnectionLimitingInterceptor}; el tamaño y el keep-alive del
+ * pool interno del JDK son propiedades de la JVM ({@code -Djdk.httpclient.connectionPoolSize},
+ * {@code -Djdk.httpclient.keepalive.timeout}) y se configuran al arrancarla, no aquí.
+ * Deadlines:
+ * <ul>
+ *   <li>connect: establecimiento de una conexión nueva.</li>
+ *   <li>read: desde el envío de la petición hasta leer la respuesta completa.</li>
+ *   <li>total: espera por una conexión libre más el intercambio completo.</li>
+ * </ul>
+ * Con {@code calculation.pipeline.mode=non-blocking} el HttpClient completa las llamadas asíncronas en un
+ * pool fijo de {@code calculation.pipeline.event-loop-threads} hilos en lugar de su pool sin límite.
+ * Un valor de {@code calculation.pipeline.mode} distinto de {@code blocking} o {@code non-blocking}
+ * detiene el arranque: no se registraría ningún controller de cálculo.
  */
+@Slf4j
 @Configuration
 public class RestTemplateConfig {
 
-    @Value("${external.service.percentage.timeout:5000}")
-    private int timeout;
+    private static final List<String> PIPELINE_MODES = List.of("blocking", "non-blocking");
+
+    @Value("${external.service.percentage.connect-timeout-ms:${external.service.percentage.timeout:5000}}")
+    private long connectTimeoutMs;
+
+    @Value("${external.service.percentage.read-timeout-ms:${external.service.percentage.timeout:5000}}")
+    private long readTimeoutMs;
+
+    @Value("${external.service.percentage.total-timeout-ms:10000}")
+    private long totalTimeoutMs;
+
+    @Value("${external.service.percentage.http2:false}")
+    private boolean http2;
+
+    @Value("${external.service.percentage.pool.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${calculation.pipeline.mode:blocking}")
+    private String pipelineMode;
+
+    @Value("${calculation.pipeline.event-loop-threads:2}")
+    private int eventLoopThreads;
+
+    @PostConstruct
+    void validatePipelineMode() {
+        if (PIPELINE_MODES.stream().noneMatch(pipelineMode::equalsIgnoreCase)) {
+            throw new IllegalStateException("calculation.pipeline.mode inválido: '" + pipelineMode
+                    + "' (valores admitidos: " + String.join(", ", PIPELINE_MODES) + ")");
+        }
+    }
+
+    /**
+     * Pool fijo en el que el HttpClient completa las llamadas asíncronas en modo non-blocking.
+     * Se cierra con el contexto.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "calculation.pipeline.mode", havingValue = "non-blocking")
+    public ExecutorService percentageIoExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("percentage-io-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(Math.max(1, eventLoopThreads), threadFactory);
+    }
+
+    @Bean
+    public HttpClient percentageHttpClient(
+            @Qualifier("percentageIoExecutor") ObjectProvider<ExecutorService> percentageIoExecutor) {
+        log.info("HttpClient para servicios externos: version={}, max-connections={}, connect={}ms, read={}ms, total={}ms",
+                http2 ? "HTTP/2" : "HTTP/1.1", maxConnections, connectTimeoutMs, readTimeoutMs, totalTimeoutMs);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER);
+        percentageIoExecutor.ifAvailable(executor -> {
+            builder.executor(executor);
+            log.info("HttpClient en modo non-blocking con {} hilos de E/S", Math.max(1, eventLoopThreads));
+        });
+        return builder.build();
+    }
 
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout((int) TimeUnit.MILLISECONDS.toMillis(timeout));
-        factory.setReadTimeout((int) TimeUnit.MILLISECONDS.toMillis(timeout));
-        
-        return new RestTemplate(factory);
+    public ConnectionLimitingInterceptor percentageConnectionPool() {
+        // El intercambio tiene su propio deadline (read); la espera por conexión consume el resto del total
+        return new ConnectionLimitingInterceptor(maxConnections, Math.max(0, totalTimeoutMs - readTimeoutMs),
+                totalTimeoutMs);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient percentageHttpClient, ConnectionLimitingInterceptor percentageConnectionPool) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(percentageHttpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(percentageConnectionPool);
+        return restTemplate;
     }
 }
@@ -0,0 +1,40 @@
+package com.tekton.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Habilita las tareas programadas de mantenimiento (particiones y resumen del historial, drenado
+ * de registros conservados) y las ejecuta en un scheduler propio de {@code scheduling.pool-size} hilos.
+ *
+ * Spring Boot no configura su scheduler cuando ya existe un {@code TaskScheduler} (como
+ * {@link CacheConfig#percentageRefreshScheduler}), por lo que {@code spring.task.scheduling.*} no aplica.
+ * Sin este scheduler las tareas {@code @Scheduled} compartirían el hilo del refresco del porcentaje y
+ * una tarea lenta lo retrasaría.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${scheduling.pool-size:3}")
+    private int poolSize;
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(taskScheduler());
+    }
+}
@@ -1,24 +1,38 @@
 package com.tekton.backend.controller;
 
 import com.tekton.backend.dto.ApiCallHistoryResponse;
+import com.tekton.backend.dto.ApiCallHistorySummary;
+import com.tekton.backend.dto.CursorPage;
+import com.tekton.backend.dto.HistoryRollupResponse;
+import com.tekton.backend.dto.LatencyStatsResponse;
 import com.tekton.backend.service.ApiCallHistoryService;
+import com.tekton.backend.service.HistoryExportService;
+import com.tekton.backend.service.HistoryRollupService;
+import com.tekton.backend.service.LatencyStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Controller para consultar el historial de llamadas a la API.
@@ -30,13 +44,17 @@ import java.time.LocalDate;
 public class ApiCallHistoryController {
 
     private final ApiCallHistoryService apiCallHistoryService;
+    private final HistoryRollupService historyRollupService;
+    private final LatencyStatsService latencyStatsService;
+    private final HistoryExportService historyExportService;
 
     @Operation(
         summary = "Obtener historial de llamadas",
-        description = "Retorna el historial de llamadas con paginación y filtros opcionales"
+        description = "Retorna el historial de llamadas con paginación y filtros opcionales. Los elementos incluyen "
+                + "el tamaño de los payloads pero no su contenido; usa /api/history/{id} para el detalle"
     )
     @GetMapping
-    public ResponseEntity<Page<ApiCallHistoryResponse>> getHistory(
+    public ResponseEntity<Page<ApiCallHistorySummary>> getHistory(
             @Parameter(description = "Filtro por endpoint (opcional)")
             @RequestParam(required = false) String endpoint,
             
@@ -54,21 +72,135 @@ public class ApiCallHistoryController {
             @Parameter(description = "Tamaño de página (default: 10)")
             @RequestParam(defaultValue = "10") int size,
             
-            @Parameter(description = "Campo para ordenar (default: timestamp)")
+            @Parameter(description = "Campo para ordenar: timestamp, endpoint o id (default: timestamp)")
             @RequestParam(defaultValue = "timestamp") String sortBy,
             
             @Parameter(description = "Dirección del orden (ASC o DESC, default: DESC)")
             @RequestParam(defaultValue = "DESC") String sortDir) {
         
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-                ? Sort.by(sortBy).ascending() 
-                : Sort.by(sortBy).descending();
+        Sort sort = ApiCallHistoryService.indexedSort(sortBy,
+                sortDir.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC);
         
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<ApiCallHistoryResponse> historyPage = apiCallHistoryService.getHistory(
+        Page<ApiCallHistorySummary> historyPage = apiCallHistoryService.getHistory(
                 endpoint, startDate, endDate, pageable);
         
         return ResponseEntity.status(HttpStatus.OK).body(historyPage);
     }
+
+    @Operation(
+        summary = "Obtener historial de llamadas por cursor",
+        description = "Paginación keyset del más reciente al más antiguo: usa nextCursor/previousCursor de la respuesta "
+                + "para avanzar o retroceder. No calcula el total de elementos y su latencia no depende de la profundidad"
+    )
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ApiCallHistorySummary>> getHistoryByCursor(
+            @Parameter(description = "Filtro por endpoint (opcional)")
+            @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+
+            @Parameter(description = "Cursor opaco de una respuesta anterior (vacío para la primera página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Tamaño de página (default: 10, máximo: 1000)")
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<ApiCallHistorySummary> historyPage = apiCallHistoryService.getHistoryByCursor(
+                endpoint, startDate, endDate, cursor, size);
+
+        return ResponseEntity.status(HttpStatus.OK).body(historyPage);
+    }
+
+    @Operation(
+        summary = "Obtener detalle de una llamada",
+        description = "Retorna un registro del historial con los cuerpos de petición y respuesta completos"
+    )
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<ApiCallHistoryResponse> getHistoryById(
+            @Parameter(description = "Identificador del registro")
+            @PathVariable Long id) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(apiCallHistoryService.getHistoryById(id));
+    }
+
+    @Operation(
+        summary = "Obtener agregados del historial",
+        description = "Retorna los agregados por minuto u hora (llamadas, errores, latencia e histograma) por endpoint, "
+                + "método y status code. Pensado para tendencias de largo plazo sin recorrer el historial crudo"
+    )
+    @GetMapping("/rollups")
+    public ResponseEntity<List<HistoryRollupResponse>> getRollups(
+            @Parameter(description = "Granularidad: MINUTE o HOUR (default: HOUR)")
+            @RequestParam(defaultValue = "HOUR") HistoryRollupService.Granularity granularity,
+
+            @Parameter(description = "Filtro por endpoint (opcional)")
+            @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd, default: 6 días antes de la fecha de fin)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd, default: hoy)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        List<HistoryRollupResponse> rollups = historyRollupService.getRollups(granularity, endpoint, startDate, endDate);
+
+        return ResponseEntity.status(HttpStatus.OK).body(rollups);
+    }
+
+    @Operation(
+        summary = "Obtener estadísticas de latencia",
+        description = "Retorna p50/p90/p99/p99.9, throughput y tasa de error por endpoint en ventanas deslizantes. "
+                + "Se calcula en memoria en esta instancia, sin consultar la base de datos"
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<List<LatencyStatsResponse>> getStats(
+            @Parameter(description = "Filtro por endpoint, p. ej. \"POST /api/calculate\" (opcional)")
+            @RequestParam(required = false) String endpoint) {
+
+        return ResponseEntity.status(HttpStatus.OK).body(latencyStatsService.getStats(endpoint));
+    }
+
+    @Operation(
+        summary = "Exportar historial de llamadas",
+        description = "Escribe en streaming todo el historial que cumple los filtros, ordenado por timestamp, en NDJSON "
+                + "(un objeto JSON por línea) o CSV. Usa memoria constante en el servidor, sin paginación ni conteo"
+    )
+    @GetMapping("/export")
+    public void exportHistory(
+            @Parameter(description = "Formato: NDJSON o CSV (default: NDJSON)")
+            @RequestParam(defaultValue = "NDJSON") HistoryExportService.Format format,
+
+            @Parameter(description = "Filtro por endpoint (opcional)")
+            @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+
+            HttpServletResponse response) throws IOException {
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("api-call-history." + format.getExtension())
+                .build()
+                .toString());
+
+        historyExportService.export(format, endpoint, startDate, endDate, response.getOutputStream());
+    }
 }
@@ -0,0 +1,87 @@
+package com.tekton.backend.controller;
+
+import com.tekton.backend.aspect.LogApiCall;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.service.BatchCalculationService;
+import com.tekton.backend.service.CalculationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller para los endpoints de cálculo por lote, comunes a los dos modos de {@code calculation.pipeline.mode}.
+ */
+@Tag(name = "Calculation", description = "API para cálculos con porcentaje dinámico")
+@RestController
+@RequestMapping("/api/calculate")
+@RequiredArgsConstructor
+public class BatchCalculationController {
+
+    private final CalculationService calculationService;
+    private final BatchCalculationService batchCalculationService;
+
+    @Operation(
+        summary = "Calcular un lote con porcentaje dinámico",
+        description = "Recibe un arreglo JSON de peticiones y retorna los resultados en el mismo orden. " +
+                      "El porcentaje se obtiene una sola vez para todo el lote y se registra un único " +
+                      "elemento en el historial.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Cálculo exitoso"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Lote vacío, demasiado grande o con datos inválidos"
+            ),
+            @ApiResponse(
+                responseCode = "503",
+                description = "Servicio externo no disponible y no hay valor en caché"
+            )
+        }
+    )
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @LogApiCall
+    public ResponseEntity<List<CalculationResponse>> calculateBatch(@RequestBody List<@Valid CalculationRequest> requests) {
+        List<CalculationResponse> responses = batchCalculationService.calculateBatch(requests);
+        return ResponseEntity.status(HttpStatus.OK).body(responses);
+    }
+
+    @Operation(
+        summary = "Calcular un lote NDJSON por streaming",
+        description = "Recibe una petición por línea (application/x-ndjson) y retorna un resultado por línea " +
+                      "a medida que se calcula. Los elementos inválidos generan una línea de error con su índice. " +
+                      "El porcentaje se obtiene una sola vez antes de iniciar el streaming."
+    )
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateBatchStream(InputStream body, HttpServletRequest request) {
+        // El porcentaje se resuelve antes de confirmar la respuesta para poder retornar 503
+        Double percentage = calculationService.getBatchPercentage();
+        LocalDateTime timestamp = LocalDateTime.now();
+        String endpoint = request.getRequestURI();
+        String method = request.getMethod();
+
+        StreamingResponseBody stream = output ->
+                batchCalculationService.calculateNdjson(body, output, percentage, timestamp, endpoint, method);
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
+}
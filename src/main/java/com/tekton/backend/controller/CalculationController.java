@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,11 +19,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * Controller para el endpoint de cálculo con porcentaje dinámico.
+ * Activo con {@code calculation.pipeline.mode=blocking} (default); en modo {@code non-blocking}
+ * el endpoint lo atiende {@link NonBlockingCalculationController}.
  */
 @Tag(name = "Calculation", description = "API para cálculos con porcentaje dinámico")
 @RestController
 @RequestMapping("/api/calculate")
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "calculation.pipeline.mode", havingValue = "blocking", matchIfMissing = true)
 public class CalculationController {
 
     private final CalculationService calculationService;
@@ -0,0 +1,65 @@
+package com.tekton.backend.controller;
+
+import com.tekton.backend.aspect.LogApiCall;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.service.CalculationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller del endpoint de cálculo con {@code calculation.pipeline.mode=non-blocking}.
+ *
+ * Retorna un {@link CompletableFuture}: el hilo de Tomcat se libera mientras se espera al servicio
+ * externo (procesamiento asíncrono de Servlet) y la respuesta se escribe cuando llega el porcentaje.
+ * Así unos pocos hilos atienden miles de peticiones en curso.
+ */
+@Tag(name = "Calculation", description = "API para cálculos con porcentaje dinámico")
+@RestController
+@RequestMapping("/api/calculate")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "calculation.pipeline.mode", havingValue = "non-blocking")
+public class NonBlockingCalculationController {
+
+    private final CalculationService calculationService;
+
+    @Operation(
+        summary = "Calcular con porcentaje dinámico",
+        description = "Suma num1 y num2, y aplica un porcentaje adicional obtenido del servicio externo. " +
+                      "El porcentaje se obtiene del servicio externo configurado sin bloquear el hilo de la " +
+                      "petición. Si el servicio falla, se usa el último valor almacenado en caché (válido por " +
+                      "30 minutos). Si no hay caché, se retorna un error 503.",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Cálculo exitoso"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Error de validación en los datos de entrada"
+            ),
+            @ApiResponse(
+                responseCode = "503",
+                description = "Servicio externo no disponible y no hay valor en caché"
+            )
+        }
+    )
+    @PostMapping
+    @LogApiCall
+    public CompletableFuture<ResponseEntity<CalculationResponse>> calculate(@Valid @RequestBody CalculationRequest request) {
+        return calculationService.calculateAsync(request)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.OK).body(response));
+    }
+}
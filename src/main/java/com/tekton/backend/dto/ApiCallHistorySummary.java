@@ -0,0 +1,29 @@
+package com.tekton.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO liviano del historial para los listados: sin payloads, solo su tamaño en bytes.
+ * El detalle completo se obtiene con {@code GET /api/history/{id}}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiCallHistorySummary {
+
+    private Long id;
+    private LocalDateTime timestamp;
+    private String endpoint;
+    private String method;
+    private Integer statusCode;
+    private Long executionTimeMs;
+    private Integer requestBodySize;
+    private Integer responseBodySize;
+    private Boolean hasError;
+}
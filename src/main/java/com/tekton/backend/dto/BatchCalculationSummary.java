@@ -0,0 +1,21 @@
+package com.tekton.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de un lote de cálculo procesado por streaming.
+ * Se registra como un único elemento del historial en lugar de uno por cada cálculo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCalculationSummary {
+
+    private Integer items;
+    private Integer processed;
+    private Integer errors;
+}
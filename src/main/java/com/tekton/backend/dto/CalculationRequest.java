@@ -1,7 +1,10 @@
 package com.tekton.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,4 +27,12 @@ public class CalculationRequest {
     @NotNull(message = "num2 es requerido")
     @Schema(description = "Segundo número para el cálculo", example = "20.3", requiredMode = Schema.RequiredMode.REQUIRED)
     private Double num2;
+
+    // Se omite si es null: no cambia el JSON de las peticiones sin clave guardado en el historial
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Size(max = 64, message = "rateKey no puede superar 64 caracteres")
+    @Pattern(regexp = "[A-Za-z0-9._-]+", message = "rateKey solo admite letras, números, '.', '_' y '-'")
+    @Schema(description = "Clave del porcentaje a aplicar (tenant o producto); sin clave se usa el porcentaje global",
+            example = "retail", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String rateKey;
 }
@@ -0,0 +1,27 @@
+package com.tekton.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (sin total de elementos).
+ *
+ * @param <T> Tipo de los elementos
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private boolean hasPrevious;
+    private String nextCursor;
+    private String previousCursor;
+}
@@ -0,0 +1,32 @@
+package com.tekton.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO de un agregado del historial (por minuto o por hora) de un endpoint, método y status code.
+ * El histograma de latencia usa como clave el rango en ms ("0-5", "5-10", ..., "10000+").
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryRollupResponse {
+
+    private LocalDateTime bucketStart;
+    private String endpoint;
+    private String method;
+    private Integer statusCode;
+    private long callCount;
+    private long errorCount;
+    private long totalExecutionTimeMs;
+    private Double avgExecutionTimeMs;
+    private Long minExecutionTimeMs;
+    private Long maxExecutionTimeMs;
+    private Map<String, Long> latencyHistogram;
+}
@@ -0,0 +1,27 @@
+package com.tekton.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las estadísticas de latencia de un endpoint en una ventana deslizante.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyStatsResponse {
+
+    private String endpoint;
+    private int windowSeconds;
+    private long count;
+    private double throughputPerSecond;
+    private double errorRate;
+    private double avgMs;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double p999Ms;
+}
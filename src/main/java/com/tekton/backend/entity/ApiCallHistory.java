@@ -1,5 +1,6 @@
 package com.tekton.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,6 +11,9 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad para almacenar el historial de llamadas a la API.
+ * El esquema y sus índices se gestionan con las migraciones de db/migration.
+ * Los payloads grandes se guardan comprimidos en las columnas {@code *Compressed}; ver
+ * {@link com.tekton.backend.service.HistoryPayloadCodec}.
  */
 @Entity
 @Table(name = "api_call_history")
@@ -38,6 +42,21 @@ public class ApiCallHistory {
     @Column(columnDefinition = "TEXT")
     private String responseBody;
 
+    @Column(columnDefinition = "BYTEA")
+    private byte[] requestBodyCompressed;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] responseBodyCompressed;
+
+    /**
+     * Tamaño en bytes (UTF-8) del payload original; null en registros anteriores a la compresión.
+     */
+    @Column
+    private Integer requestBodySize;
+
+    @Column
+    private Integer responseBodySize;
+
     @Column(nullable = false)
     private Integer statusCode;
 
@@ -46,4 +65,24 @@ public class ApiCallHistory {
 
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
+
+    /**
+     * Objetos de petición y respuesta capturados por el aspecto, pendientes de serializar en el hilo
+     * de escritura ({@link com.tekton.backend.service.HistoryPayloadCodec}), o los bytes UTF-8 del
+     * cuerpo HTTP ({@code byte[]}) cuando los captura el filtro. No se persisten.
+     */
+    @Transient
+    @JsonIgnore
+    private Object requestPayload;
+
+    @Transient
+    @JsonIgnore
+    private Object responsePayload;
+
+    /**
+     * Tamaño máximo de cada cuerpo serializado a partir de los objetos capturados; 0 sin límite.
+     */
+    @Transient
+    @JsonIgnore
+    private int maxPayloadBytes;
 }
@@ -0,0 +1,39 @@
+package com.tekton.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint del spool local de historial: posición del siguiente registro pendiente de replay.
+ * Se actualiza en la misma transacción que inserta los registros, por lo que un registro
+ * nunca se inserta dos veces aunque la aplicación se detenga entre lotes.
+ */
+@Entity
+@Table(name = "history_spool_checkpoint")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistorySpoolCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String spoolId;
+
+    @Column(nullable = false)
+    private Long segment;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
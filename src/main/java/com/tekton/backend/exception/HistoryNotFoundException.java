@@ -0,0 +1,11 @@
+package com.tekton.backend.exception;
+
+/**
+ * Excepción lanzada cuando no existe el registro de historial solicitado.
+ */
+public class HistoryNotFoundException extends RuntimeException {
+
+    public HistoryNotFoundException(String message) {
+        super(message);
+    }
+}
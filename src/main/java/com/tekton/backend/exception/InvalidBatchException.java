@@ -0,0 +1,11 @@
+package com.tekton.backend.exception;
+
+/**
+ * Excepción lanzada cuando un lote de cálculo está vacío o supera el tamaño máximo permitido.
+ */
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
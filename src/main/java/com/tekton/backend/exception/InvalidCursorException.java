@@ -0,0 +1,11 @@
+package com.tekton.backend.exception;
+
+/**
+ * Excepción lanzada cuando el cursor de paginación recibido no es válido.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tekton.backend.exception;
+
+/**
+ * Excepción lanzada cuando se solicita ordenar por un campo no permitido.
+ */
+public class InvalidSortFieldException extends RuntimeException {
+
+    public InvalidSortFieldException(String message) {
+        super(message);
+    }
+}
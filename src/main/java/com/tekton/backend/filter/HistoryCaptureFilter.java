@@ -0,0 +1,117 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.aspect.LogApiCall;
+import com.tekton.backend.util.PayloadBufferPool;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captura los cuerpos HTTP tal como se leen y se escriben, para que el historial guarde esos bytes
+ * en lugar de volver a serializar con Jackson los objetos de petición y respuesta.
+ *
+ * Solo actúa en las peticiones que resuelven a un handler con {@code @LogApiCall}; las demás pasan sin
+ * envoltorios ni copias. Las condiciones de esos handlers se leen del {@link RequestMappingHandlerMapping}
+ * en la primera petición. Cada petición capturada recibe una {@link WireCapture} como atributo:
+ * ApiCallHistoryAspect registra un listener y el filtro se lo entrega al terminar la cadena, ya escrita
+ * la respuesta. Se desactiva con {@code history.capture.wire=false}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "history.capture.wire", havingValue = "true", matchIfMissing = true)
+public class HistoryCaptureFilter extends OncePerRequestFilter {
+
+    private static final int BUFFER_POOL_SIZE = 64;
+    private static final int BUFFER_INITIAL_CAPACITY = 1024;
+    private static final int BUFFER_MAX_RETAINED = 64 * 1024;
+
+    private final PayloadBufferPool buffers =
+            new PayloadBufferPool(BUFFER_POOL_SIZE, BUFFER_INITIAL_CAPACITY, BUFFER_MAX_RETAINED);
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+
+    /**
+     * Mappings de los handlers con {@code @LogApiCall}; se resuelven en la primera petición.
+     */
+    private volatile List<RequestMappingInfo> loggedMappings;
+
+    /**
+     * Límite de la copia del cuerpo de la petición, que se lee antes de conocer el endpoint.
+     */
+    @Value("${history.capture.max-payload-bytes:65536}")
+    private int maxPayloadBytes = 65536;
+
+    public HistoryCaptureFilter(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        List<RequestMappingInfo> mappings = loggedMappings();
+        if (mappings.isEmpty()) {
+            return true;
+        }
+        boolean parsed = ServletRequestPathUtils.hasParsedRequestPath(request);
+        if (!parsed) {
+            ServletRequestPathUtils.parseAndCache(request);
+        }
+        try {
+            for (RequestMappingInfo mapping : mappings) {
+                if (mapping.getMatchingCondition(request) != null) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            if (!parsed) {
+                ServletRequestPathUtils.clearParsedRequestPath(request);
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        WireCapture capture = new WireCapture(buffers, maxPayloadBytes);
+        request.setAttribute(WireCapture.ATTRIBUTE, capture);
+        try {
+            chain.doFilter(new CapturingRequestWrapper(request, capture), new CapturingResponseWrapper(response, capture));
+        } finally {
+            try {
+                capture.complete(!request.isAsyncStarted());
+            } catch (Exception e) {
+                log.warn("No se pudo registrar el historial para {}: {}", request.getRequestURI(), e.getMessage());
+            }
+        }
+    }
+
+    private List<RequestMappingInfo> loggedMappings() {
+        List<RequestMappingInfo> mappings = loggedMappings;
+        if (mappings == null) {
+            RequestMappingHandlerMapping mapping = handlerMapping.getIfAvailable();
+            mappings = mapping == null ? List.of() : mapping.getHandlerMethods().entrySet().stream()
+                    .filter(entry -> entry.getValue().hasMethodAnnotation(LogApiCall.class))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            loggedMappings = mappings;
+            log.debug("Captura de cuerpos HTTP activa para {} endpoints con @LogApiCall", mappings.size());
+        }
+        return mappings;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.util.ServerTiming;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marca el inicio de la serialización de la respuesta y deja una primera cabecera {@code Server-Timing},
+ * por si la respuesta se confirma antes de que {@link ServerTimingFilter} escriba la definitiva.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            response.getHeaders().set(ServerTiming.HEADER, timing.header());
+            timing.startSerialization();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,161 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.util.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Agrega la cabecera {@code Server-Timing} con el desglose de la latencia de la petición
+ * (ver {@link ServerTiming}). Se activa con {@code server-timing.enabled=true} y aplica a las
+ * rutas de {@code server-timing.paths} (la ruta o sus subrutas), salvo las de
+ * {@code server-timing.exclude-paths}, como la exportación en streaming.
+ *
+ * La cabecera se escribe dos veces: antes de serializar la respuesta ({@link ServerTimingBodyAdvice}),
+ * con las etapas hasta ese momento, y al terminar la petición, con la serialización, el registro del
+ * historial y el total. Para que la segunda llegue, los flush explícitos se retienen mientras lo escrito
+ * quepa en el buffer del servidor; a partir de ahí la respuesta se confirma igualmente, así que los flush
+ * pasan y la respuesta conserva la primera cabecera.
+ * Se ejecuta fuera de {@link HistoryCaptureFilter} para incluir el registro del historial.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Value("${server-timing.paths:/api/calculate,/api/history}")
+    private List<String> paths = List.of("/api/calculate", "/api/history");
+
+    @Value("${server-timing.exclude-paths:/api/history/export}")
+    private List<String> excludePaths = List.of("/api/history/export");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return matchesAny(uri, excludePaths) || !matchesAny(uri, paths);
+    }
+
+    private static boolean matchesAny(String uri, List<String> paths) {
+        for (String path : paths) {
+            if (uri.startsWith(path) && (uri.length() == path.length() || uri.charAt(path.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.begin();
+        TimingResponseWrapper wrapper = new TimingResponseWrapper(response, timing);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            timing.endSerialization();
+            // Con procesamiento asíncrono la respuesta se escribe después, en otro hilo, y no se mide
+            if (!response.isCommitted() && !request.isAsyncStarted()) {
+                response.setHeader(ServerTiming.HEADER, timing.header());
+            }
+            wrapper.finished = true;
+            ServerTiming.clear();
+        }
+    }
+
+    /**
+     * Marca el fin de la serialización en el primer flush y retiene los flush hasta terminar la petición
+     * mientras lo escrito quepa en el buffer del servidor.
+     */
+    private static final class TimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+        private ServletOutputStream outputStream;
+        private volatile boolean finished;
+        private long written;
+
+        TimingResponseWrapper(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            timing.endSerialization();
+            if (!holdFlush()) {
+                super.flushBuffer();
+            }
+        }
+
+        /**
+         * @return true si el flush puede esperar al final de la petición sin retrasar datos al cliente
+         */
+        private boolean holdFlush() {
+            return !finished && written < getBufferSize();
+        }
+
+        private final class TimingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            TimingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                written += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                timing.endSerialization();
+                if (!holdFlush()) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
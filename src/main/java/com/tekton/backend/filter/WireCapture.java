@@ -0,0 +1,149 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.service.HistoryPayloadCodec;
+import com.tekton.backend.util.PayloadBuffer;
+import com.tekton.backend.util.PayloadBufferPool;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bytes de la petición y de la respuesta HTTP tal como pasan por el servidor, capturados por
+ * {@link HistoryCaptureFilter} para el historial.
+ *
+ * El cuerpo de la petición se copia mientras Spring MVC lo lee; el de la respuesta solo se copia si
+ * el aspecto lo pide con {@link #onComplete} antes de que se escriba. Al terminar la petición el
+ * filtro entrega ambos al {@link Listener}, que los pasa al historial sin otra serialización.
+ * Solo se usa desde el hilo de la petición.
+ */
+public class WireCapture {
+
+    /**
+     * Atributo del request con la captura en curso.
+     */
+    public static final String ATTRIBUTE = WireCapture.class.getName();
+
+    private static final byte[] TRUNCATED_SUFFIX_BYTES = HistoryPayloadCodec.TRUNCATED_SUFFIX.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Recibe los cuerpos capturados al terminar la petición.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param requestBody Cuerpo de la petición en UTF-8, truncado; null si no se leyó ninguno
+         * @param responseBody Cuerpo de la respuesta en UTF-8, truncado; null si no se capturó
+         *                     (no se pidió, la respuesta usó un Writer o el procesamiento es asíncrono)
+         */
+        void onComplete(byte[] requestBody, byte[] responseBody);
+    }
+
+    private final PayloadBufferPool buffers;
+    private final int requestLimit;
+
+    private PayloadBuffer requestBody;
+    private PayloadBuffer responseBody;
+    private Listener listener;
+    private int maxPayloadBytes;
+    private boolean captureResponse;
+
+    /**
+     * @param buffers Pool de buffers
+     * @param requestLimit Máximo de bytes de la petición que se copian; 0 sin límite
+     */
+    WireCapture(PayloadBufferPool buffers, int requestLimit) {
+        this.buffers = buffers;
+        this.requestLimit = requestLimit;
+    }
+
+    /**
+     * @return Captura del request, o null si el filtro no está activo
+     */
+    public static WireCapture of(HttpServletRequest request) {
+        return request != null && request.getAttribute(ATTRIBUTE) instanceof WireCapture capture ? capture : null;
+    }
+
+    /**
+     * Registra el destino de los cuerpos capturados. Se llama desde el handler, antes de escribir la respuesta.
+     *
+     * @param maxPayloadBytes Máximo de bytes por cuerpo; 0 sin límite
+     * @param captureResponse true para copiar también el cuerpo de la respuesta
+     */
+    public void onComplete(int maxPayloadBytes, boolean captureResponse, Listener listener) {
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.captureResponse = captureResponse;
+        this.listener = listener;
+    }
+
+    void request(int b) {
+        requestBuffer().copy(b);
+    }
+
+    void request(byte[] b, int off, int len) {
+        requestBuffer().copy(b, off, len);
+    }
+
+    void response(int b) {
+        if (captureResponse) {
+            responseBuffer().copy(b);
+        }
+    }
+
+    void response(byte[] b, int off, int len) {
+        if (captureResponse) {
+            responseBuffer().copy(b, off, len);
+        }
+    }
+
+    /**
+     * Entrega los cuerpos al listener, si lo hay, y devuelve los buffers al pool.
+     *
+     * @param responseAvailable false si la respuesta aún no se escribió (procesamiento asíncrono)
+     */
+    void complete(boolean responseAvailable) {
+        try {
+            if (listener != null) {
+                listener.onComplete(toBytes(requestBody), responseAvailable ? toBytes(responseBody) : null);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private byte[] toBytes(PayloadBuffer buffer) {
+        if (buffer == null || buffer.size() == 0) {
+            return null;
+        }
+        buffer.truncate(maxPayloadBytes, TRUNCATED_SUFFIX_BYTES);
+        return buffer.toByteArray();
+    }
+
+    private void release() {
+        if (requestBody != null) {
+            buffers.release(requestBody);
+            requestBody = null;
+        }
+        if (responseBody != null) {
+            buffers.release(responseBody);
+            responseBody = null;
+        }
+        listener = null;
+    }
+
+    private PayloadBuffer requestBuffer() {
+        if (requestBody == null) {
+            requestBody = buffers.acquire();
+            requestBody.reset(requestLimit);
+        }
+        return requestBody;
+    }
+
+    private PayloadBuffer responseBuffer() {
+        if (responseBody == null) {
+            responseBody = buffers.acquire();
+            responseBody.reset(maxPayloadBytes);
+        }
+        return responseBody;
+    }
+}
@@ -9,5 +9,6 @@ import org.springframework.stereotype.Repository;
  * Repositorio para el historial de llamadas a la API.
  */
 @Repository
-public interface ApiCallHistoryRepository extends JpaRepository<ApiCallHistory, Long>, JpaSpecificationExecutor<ApiCallHistory> {
+public interface ApiCallHistoryRepository extends JpaRepository<ApiCallHistory, Long>, JpaSpecificationExecutor<ApiCallHistory>,
+        ApiCallHistoryRepositoryCustom {
 }
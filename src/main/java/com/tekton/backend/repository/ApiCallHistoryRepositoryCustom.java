@@ -0,0 +1,26 @@
+package com.tekton.backend.repository;
+
+import com.tekton.backend.dto.ApiCallHistorySummary;
+import com.tekton.backend.entity.ApiCallHistory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas del historial que proyectan a {@link ApiCallHistorySummary} sin leer las columnas de payload.
+ */
+public interface ApiCallHistoryRepositoryCustom {
+
+    /**
+     * @return Página de resúmenes que cumplen la especificación
+     */
+    Page<ApiCallHistorySummary> findSummaries(Specification<ApiCallHistory> spec, Pageable pageable);
+
+    /**
+     * @return Como máximo {@code limit} resúmenes en el orden indicado, sin consulta de conteo
+     */
+    List<ApiCallHistorySummary> findSummaries(Specification<ApiCallHistory> spec, Sort sort, int limit);
+}
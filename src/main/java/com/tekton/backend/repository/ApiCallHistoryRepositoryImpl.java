@@ -0,0 +1,89 @@
+package com.tekton.backend.repository;
+
+import com.tekton.backend.dto.ApiCallHistorySummary;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.util.ServerTiming;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Implementación de {@link ApiCallHistoryRepositoryCustom} con Criteria API.
+ *
+ * El SELECT solo incluye columnas escalares. El tamaño de los payloads sale de las columnas *_body_size
+ * y, en registros anteriores a la compresión, de octet_length, que PostgreSQL resuelve a partir de la
+ * cabecera del valor sin descomprimir ni leer el TOAST.
+ */
+@RequiredArgsConstructor
+class ApiCallHistoryRepositoryImpl implements ApiCallHistoryRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<ApiCallHistorySummary> findSummaries(Specification<ApiCallHistory> spec, Pageable pageable) {
+        TypedQuery<ApiCallHistorySummary> query = summaryQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        long start = ServerTiming.start();
+        List<ApiCallHistorySummary> content = query.getResultList();
+        ServerTiming.record(ServerTiming.Stage.DB_QUERY, start);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<ApiCallHistorySummary> findSummaries(Specification<ApiCallHistory> spec, Sort sort, int limit) {
+        long start = ServerTiming.start();
+        List<ApiCallHistorySummary> content = summaryQuery(spec, sort).setMaxResults(limit).getResultList();
+        ServerTiming.record(ServerTiming.Stage.DB_QUERY, start);
+        return content;
+    }
+
+    private TypedQuery<ApiCallHistorySummary> summaryQuery(Specification<ApiCallHistory> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ApiCallHistorySummary> query = cb.createQuery(ApiCallHistorySummary.class);
+        Root<ApiCallHistory> root = query.from(ApiCallHistory.class);
+
+        query.select(cb.construct(ApiCallHistorySummary.class,
+                root.get("id"),
+                root.get("timestamp"),
+                root.get("endpoint"),
+                root.get("method"),
+                root.get("statusCode"),
+                root.get("executionTimeMs"),
+                payloadSize(cb, root.get("requestBodySize"), root.get("requestBody")),
+                payloadSize(cb, root.get("responseBodySize"), root.get("responseBody")),
+                cb.<Boolean>selectCase().when(cb.isNotNull(root.get("errorMessage")), true).otherwise(false)));
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<ApiCallHistory> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ApiCallHistory> root = query.from(ApiCallHistory.class);
+        query.select(cb.count(root)).where(spec.toPredicate(root, query, cb));
+        long start = ServerTiming.start();
+        long count = entityManager.createQuery(query).getSingleResult();
+        ServerTiming.record(ServerTiming.Stage.DB_COUNT, start);
+        return count;
+    }
+
+    private static Expression<Integer> payloadSize(CriteriaBuilder cb, Expression<Integer> size, Expression<String> text) {
+        return cb.coalesce(size, cb.function("octet_length", Integer.class, text));
+    }
+}
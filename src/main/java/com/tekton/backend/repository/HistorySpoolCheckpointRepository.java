@@ -0,0 +1,12 @@
+package com.tekton.backend.repository;
+
+import com.tekton.backend.entity.HistorySpoolCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para los checkpoints del spool local de historial.
+ */
+@Repository
+public interface HistorySpoolCheckpointRepository extends JpaRepository<HistorySpoolCheckpoint, String> {
+}
@@ -0,0 +1,69 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.entity.ApiCallHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserta registros de historial con JDBC batch.
+ *
+ * ApiCallHistory usa GenerationType.IDENTITY, lo que desactiva el batching de Hibernate;
+ * por eso la inserción se hace con JdbcTemplate. Con {@code reWriteBatchedInserts=true}
+ * el driver de PostgreSQL envía cada lote como un único INSERT multi-fila.
+ * Los payloads se comprimen con {@link HistoryPayloadCodec} antes de enviarlos.
+ * No abre transacción: el llamador define los límites transaccionales.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiCallHistoryBatchInserter {
+
+    static final String INSERT_SQL = "INSERT INTO api_call_history "
+            + "(timestamp, endpoint, method, request_body, response_body, status_code, execution_time_ms, error_message, "
+            + "request_body_compressed, response_body_compressed, request_body_size, response_body_size) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryPayloadCodec payloadCodec;
+
+    /**
+     * Inserta el lote completo en una sola llamada batch.
+     *
+     * @param batch Registros a insertar
+     */
+    public void insert(List<ApiCallHistory> batch) {
+        batch.forEach(payloadCodec::compress);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, history) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(history.getTimestamp()));
+            ps.setString(2, history.getEndpoint());
+            ps.setString(3, history.getMethod());
+            ps.setString(4, history.getRequestBody());
+            ps.setString(5, history.getResponseBody());
+            ps.setInt(6, history.getStatusCode());
+            if (history.getExecutionTimeMs() != null) {
+                ps.setLong(7, history.getExecutionTimeMs());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+            ps.setString(8, history.getErrorMessage());
+            ps.setBytes(9, history.getRequestBodyCompressed());
+            ps.setBytes(10, history.getResponseBodyCompressed());
+            setInteger(ps, 11, history.getRequestBodySize());
+            setInteger(ps, 12, history.getResponseBodySize());
+        });
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.tekton.backend.service;
 
 import com.tekton.backend.dto.ApiCallHistoryResponse;
+import com.tekton.backend.dto.ApiCallHistorySummary;
+import com.tekton.backend.dto.CursorPage;
 import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.exception.HistoryNotFoundException;
+import com.tekton.backend.exception.InvalidSortFieldException;
 import com.tekton.backend.repository.ApiCallHistoryRepository;
+import com.tekton.backend.util.HistoryCursor;
+import com.tekton.backend.util.ServerTiming;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Servicio para gestionar el historial de llamadas.
@@ -26,49 +35,195 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ApiCallHistoryService {
 
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * Campos por los que se puede ordenar el historial, con las columnas completas del índice
+     * que respalda cada orden (ver db/migration). Las columnas TEXT del payload no se permiten.
+     */
+    private static final Map<String, List<String>> SORTABLE_FIELDS = Map.of(
+            "timestamp", List.of("timestamp", "id"),
+            "endpoint", List.of("endpoint", "timestamp", "id"),
+            "id", List.of("id"));
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"));
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("id"));
+
     private final ApiCallHistoryRepository repository;
+    private final ApiCallHistoryWriter historyWriter;
+    private final HistoryPayloadCodec payloadCodec;
 
-    @Async("apiHistoryExecutor")
+    /**
+     * Registra una llamada en el historial. La persistencia la realiza el
+     * {@link ApiCallHistoryWriter} configurado, fuera del hilo de la petición.
+     */
     public void saveHistory(LocalDateTime timestamp, String endpoint, String method,
                            String requestBody, String responseBody, Integer statusCode,
                            Long executionTimeMs, String errorMessage) {
-        try {
-            ApiCallHistory history = ApiCallHistory.builder()
-                    .timestamp(timestamp)
-                    .endpoint(endpoint)
-                    .method(method)
-                    .requestBody(requestBody)
-                    .responseBody(responseBody)
-                    .statusCode(statusCode)
-                    .executionTimeMs(executionTimeMs)
-                    .errorMessage(errorMessage)
-                    .build();
-
-            repository.save(history);
-            log.debug("Historial guardado para endpoint: {}", endpoint);
-        } catch (Exception e) {
-            log.error("Error al guardar historial: {}", e.getMessage(), e);
-        }
+        ApiCallHistory history = ApiCallHistory.builder()
+                .timestamp(timestamp)
+                .endpoint(endpoint)
+                .method(method)
+                .requestBody(requestBody)
+                .responseBody(responseBody)
+                .statusCode(statusCode)
+                .executionTimeMs(executionTimeMs)
+                .errorMessage(errorMessage)
+                .build();
+
+        historyWriter.write(history);
+    }
+
+    /**
+     * Registra una llamada con los objetos de petición y respuesta sin serializar. La serialización
+     * a JSON (truncada a {@code maxPayloadBytes}) y la compresión se hacen en el hilo de escritura,
+     * por lo que los objetos no deben modificarse después de la llamada.
+     */
+    public void saveCapturedCall(LocalDateTime timestamp, String endpoint, String method,
+                                 Object requestPayload, Object responsePayload, int maxPayloadBytes,
+                                 Integer statusCode, Long executionTimeMs, String errorMessage) {
+        ApiCallHistory history = ApiCallHistory.builder()
+                .timestamp(timestamp)
+                .endpoint(endpoint)
+                .method(method)
+                .requestPayload(requestPayload)
+                .responsePayload(responsePayload)
+                .maxPayloadBytes(maxPayloadBytes)
+                .statusCode(statusCode)
+                .executionTimeMs(executionTimeMs)
+                .errorMessage(errorMessage)
+                .build();
+
+        historyWriter.write(history);
     }
 
     /**
      * Obtiene el historial de llamadas con filtros opcionales y paginación.
+     * Los elementos no incluyen los payloads, solo su tamaño; el detalle se obtiene con {@link #getHistoryById}.
      * 
      * @param endpoint Filtro por endpoint (opcional)
      * @param startDate Fecha de inicio (opcional)
      * @param endDate Fecha de fin (opcional)
      * @param pageable Configuración de paginación
-     * @return Página de historial de llamadas
+     * @return Página de resúmenes del historial de llamadas
      */
-    public Page<ApiCallHistoryResponse> getHistory(String endpoint, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+    public Page<ApiCallHistorySummary> getHistory(String endpoint, LocalDate startDate, LocalDate endDate, Pageable pageable) {
         Specification<ApiCallHistory> spec = buildSpecification(endpoint, startDate, endDate);
-        Page<ApiCallHistory> historyPage = repository.findAll(spec, pageable);
-        
-        return historyPage.map(this::toResponse);
+        return repository.findSummaries(spec, pageable);
+    }
+
+    /**
+     * Obtiene un registro del historial con sus payloads completos.
+     *
+     * @param id Identificador del registro
+     * @return Registro del historial
+     * @throws HistoryNotFoundException si no existe
+     */
+    public ApiCallHistoryResponse getHistoryById(Long id) {
+        long start = ServerTiming.start();
+        Optional<ApiCallHistory> history = repository.findById(id);
+        ServerTiming.record(ServerTiming.Stage.DB_QUERY, start);
+        return history
+                .map(this::toResponse)
+                .orElseThrow(() -> new HistoryNotFoundException("No existe el registro de historial " + id));
+    }
+
+    /**
+     * Construye el orden del historial respaldado por índice para el campo solicitado.
+     *
+     * @param sortBy Campo de orden (timestamp, endpoint o id)
+     * @param direction Dirección del orden
+     * @return Orden con las columnas de desempate del índice correspondiente
+     * @throws InvalidSortFieldException si el campo no tiene índice
+     */
+    public static Sort indexedSort(String sortBy, Sort.Direction direction) {
+        List<String> columns = SORTABLE_FIELDS.get(sortBy);
+        if (columns == null) {
+            throw new InvalidSortFieldException("No se permite ordenar por '" + sortBy
+                    + "'. Campos permitidos: timestamp, endpoint, id");
+        }
+        return Sort.by(direction, columns.toArray(new String[0]));
+    }
+
+    /**
+     * Obtiene el historial con paginación keyset, del más reciente al más antiguo.
+     * Cada página busca directamente a partir de {@code (timestamp, id)} del cursor, por lo que
+     * su costo no depende de la profundidad, y no ejecuta la consulta COUNT de la paginación por offset.
+     *
+     * @param endpoint Filtro por endpoint (opcional)
+     * @param startDate Fecha de inicio (opcional)
+     * @param endDate Fecha de fin (opcional)
+     * @param cursor Cursor recibido en una página anterior (null para la primera página)
+     * @param size Tamaño de página (entre 1 y {@value #MAX_CURSOR_PAGE_SIZE})
+     * @return Página con los cursores para avanzar o retroceder
+     * @throws com.tekton.backend.exception.InvalidCursorException si el cursor no es válido
+     */
+    public CursorPage<ApiCallHistorySummary> getHistoryByCursor(String endpoint, LocalDate startDate, LocalDate endDate,
+                                                                String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        HistoryCursor position = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        boolean backwards = position != null && position.direction() == HistoryCursor.Direction.PREVIOUS;
+
+        Specification<ApiCallHistory> spec = buildSpecification(endpoint, startDate, endDate);
+        if (position != null) {
+            spec = spec.and(seek(position));
+        }
+
+        // Se pide un elemento extra para saber si hay más resultados sin contar
+        List<ApiCallHistorySummary> rows = repository.findSummaries(spec, backwards ? OLDEST_FIRST : NEWEST_FIRST,
+                pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ApiCallHistorySummary> page = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (backwards) {
+            Collections.reverse(page);
+        }
+
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrevious = backwards ? hasMore : position != null;
+        ApiCallHistorySummary first = page.isEmpty() ? null : page.get(0);
+        ApiCallHistorySummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return CursorPage.<ApiCallHistorySummary>builder()
+                .content(page)
+                .size(page.size())
+                .hasNext(hasNext && last != null)
+                .hasPrevious(hasPrevious && first != null)
+                .nextCursor(hasNext && last != null ? HistoryCursor.next(last.getTimestamp(), last.getId()).encode() : null)
+                .previousCursor(hasPrevious && first != null ? HistoryCursor.previous(first.getTimestamp(), first.getId()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Condición keyset: registros estrictamente más antiguos (NEXT) o más recientes (PREVIOUS)
+     * que la posición del cursor en el orden {@code (timestamp, id)}.
+     *
+     * La cota {@code timestamp <= t} (o {@code >= t}) es redundante con el OR, pero es la que permite
+     * a PostgreSQL empezar el recorrido del índice {@code (timestamp, id)} en la posición del cursor
+     * (y descartar particiones) en lugar de filtrar desde el inicio del índice.
+     */
+    private Specification<ApiCallHistory> seek(HistoryCursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> timestamp = root.get("timestamp");
+            Path<Long> id = root.get("id");
+            if (cursor.direction() == HistoryCursor.Direction.NEXT) {
+                return cb.and(
+                        cb.lessThanOrEqualTo(timestamp, cursor.timestamp()),
+                        cb.or(
+                                cb.lessThan(timestamp, cursor.timestamp()),
+                                cb.and(cb.equal(timestamp, cursor.timestamp()), cb.lessThan(id, cursor.id()))));
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(timestamp, cursor.timestamp()),
+                    cb.or(
+                            cb.greaterThan(timestamp, cursor.timestamp()),
+                            cb.and(cb.equal(timestamp, cursor.timestamp()), cb.greaterThan(id, cursor.id()))));
+        };
     }
 
     /**
      * Construye la especificación para los filtros dinámicos.
+     * El rango de fechas es semiabierto [startDate, endDate + 1 día) sobre la clave de partición,
+     * de modo que PostgreSQL descarta las particiones fuera del rango (partition pruning).
      */
     private Specification<ApiCallHistory> buildSpecification(String endpoint, LocalDate startDate, LocalDate endDate) {
         return (root, query, cb) -> {
@@ -84,8 +239,8 @@ public class ApiCallHistoryService {
             }
 
             if (endDate != null) {
-                LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-                predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), endDateTime));
+                LocalDateTime endExclusive = endDate.plusDays(1).atStartOfDay();
+                predicates.add(cb.lessThan(root.get("timestamp"), endExclusive));
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
@@ -93,16 +248,16 @@ public class ApiCallHistoryService {
     }
 
     /**
-     * Convierte la entidad a DTO.
+     * Convierte la entidad a DTO, descomprimiendo los payloads.
      */
-    private ApiCallHistoryResponse toResponse(ApiCallHistory history) {
+    ApiCallHistoryResponse toResponse(ApiCallHistory history) {
         return ApiCallHistoryResponse.builder()
                 .id(history.getId())
                 .timestamp(history.getTimestamp())
                 .endpoint(history.getEndpoint())
                 .method(history.getMethod())
-                .requestBody(history.getRequestBody())
-                .responseBody(history.getResponseBody())
+                .requestBody(payloadCodec.decode(history.getRequestBody(), history.getRequestBodyCompressed()))
+                .responseBody(payloadCodec.decode(history.getResponseBody(), history.getResponseBodyCompressed()))
                 .statusCode(history.getStatusCode())
                 .executionTimeMs(history.getExecutionTimeMs())
                 .errorMessage(history.getErrorMessage())
@@ -0,0 +1,22 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.entity.ApiCallHistory;
+
+/**
+ * Estrategia de persistencia del historial de llamadas.
+ * La implementación se selecciona con la propiedad {@code history.writer.mode}:
+ * <ul>
+ *   <li>{@code async} (default): un save() por llamada en el executor apiHistoryExecutor.</li>
+ *   <li>{@code batch}: cola en memoria acotada e inserciones JDBC por lotes.</li>
+ * </ul>
+ * Las implementaciones no deben bloquear el hilo de la petición.
+ */
+public interface ApiCallHistoryWriter {
+
+    /**
+     * Encola un registro de historial para su persistencia.
+     *
+     * @param history Registro a persistir
+     */
+    void write(ApiCallHistory history);
+}
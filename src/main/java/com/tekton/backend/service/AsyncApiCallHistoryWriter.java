@@ -0,0 +1,160 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.repository.ApiCallHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persiste cada registro de historial con un save() individual en el executor apiHistoryExecutor.
+ * Si el executor está saturado, el registro se entrega a {@link HistoryOverloadHandler} en lugar
+ * de propagar el rechazo a la petición; los registros conservados se persisten cuando el
+ * executor vuelve a tener capacidad. Los payloads se comprimen en el executor, fuera del hilo de la petición.
+ *
+ * El executor puede ser un pool de hilos con cola ({@link ThreadPoolTaskExecutor}) o, en modo de
+ * hilos virtuales, un {@link SimpleAsyncTaskExecutor} cuyas tareas esperan un permiso antes de usar JDBC
+ * (ver {@link com.tekton.backend.config.AsyncConfig#virtualExecutor}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "history.writer.mode", havingValue = "async", matchIfMissing = true)
+public class AsyncApiCallHistoryWriter implements ApiCallHistoryWriter {
+
+    private final ApiCallHistoryRepository repository;
+    private final AsyncTaskExecutor apiHistoryExecutor;
+    private final HistoryOverloadHandler overloadHandler;
+    private final HistoryPayloadCodec payloadCodec;
+    private final HistoryWriteLagRecorder writeLagRecorder;
+
+    @Value("${async.executor.overflow-drain-batch:100}")
+    private int drainBatch;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicInteger running = new AtomicInteger();
+    // Tareas enviadas y no terminadas (en ejecución o esperando), para el modo de hilos virtuales
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Override
+    public void write(ApiCallHistory history) {
+        try {
+            submit(() -> persist(history));
+        } catch (TaskRejectedException e) {
+            overloadHandler.onRejected(history);
+            return;
+        }
+        drainOverflowIfIdle();
+    }
+
+    /**
+     * @return Tareas de historial en espera en la cola del executor
+     */
+    public int getQueueDepth() {
+        if (apiHistoryExecutor instanceof ThreadPoolTaskExecutor pool) {
+            return pool.getThreadPoolExecutor().getQueue().size();
+        }
+        return Math.max(0, inFlight.get() - running.get());
+    }
+
+    /**
+     * @return Tareas de historial en ejecución
+     */
+    public int getActiveCount() {
+        return running.get();
+    }
+
+    private void persist(ApiCallHistory history) {
+        try {
+            payloadCodec.compress(history);
+            repository.save(history);
+            writeLagRecorder.committed(history);
+            log.debug("Historial guardado para endpoint: {}", history.getEndpoint());
+        } catch (Exception e) {
+            log.error("Error al guardar historial: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Intenta persistir periódicamente los registros conservados, para que no queden pendientes
+     * cuando deja de haber tráfico que dispare {@link #write(ApiCallHistory)}.
+     */
+    @Scheduled(fixedDelayString = "${async.executor.overflow-drain-interval-ms:5000}")
+    public void drainOverflow() {
+        drainOverflowIfIdle();
+    }
+
+    /**
+     * Programa la persistencia de los registros conservados por la política de sobrecarga
+     * cuando el executor está por debajo de la mitad de su capacidad.
+     */
+    private void drainOverflowIfIdle() {
+        if (!overloadHandler.hasPending() || !hasSpareCapacity() || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            submit(() -> {
+                try {
+                    List<ApiCallHistory> records = overloadHandler.drain(drainBatch);
+                    if (!records.isEmpty()) {
+                        records.forEach(payloadCodec::compress);
+                        repository.saveAll(records);
+                        writeLagRecorder.committed(records);
+                        log.debug("Persistidos {} registros de historial conservados durante la sobrecarga", records.size());
+                    }
+                    overloadHandler.commitDrain();
+                } catch (Exception e) {
+                    // Los registros del archivo de spill se reintentan en el siguiente drenado
+                    overloadHandler.abortDrain();
+                    log.error("Error al persistir historial conservado: {}", e.getMessage(), e);
+                } finally {
+                    draining.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * @return true si la cola (pool) o la concurrencia (hilos virtuales) está por debajo de la mitad
+     */
+    private boolean hasSpareCapacity() {
+        if (apiHistoryExecutor instanceof ThreadPoolTaskExecutor pool) {
+            return pool.getThreadPoolExecutor().getQueue().remainingCapacity() >= pool.getQueueCapacity() / 2;
+        }
+        if (apiHistoryExecutor instanceof SimpleAsyncTaskExecutor simple && simple.getConcurrencyLimit() > 0) {
+            return inFlight.get() * 2 < simple.getConcurrencyLimit();
+        }
+        return true;
+    }
+
+    private void submit(Runnable task) {
+        inFlight.incrementAndGet();
+        try {
+            apiHistoryExecutor.execute(() -> {
+                running.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+}
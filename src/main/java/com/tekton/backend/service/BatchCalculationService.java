@@ -0,0 +1,201 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.dto.BatchCalculationSummary;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.dto.ErrorResponse;
+import com.tekton.backend.exception.InvalidBatchException;
+import com.tekton.backend.exception.PercentageNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio para cálculos por lote.
+ * El porcentaje se obtiene una sola vez por lote y el historial registra un único
+ * elemento agregado en lugar de uno por cada cálculo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchCalculationService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final CalculationService calculationService;
+    private final ApiCallHistoryService apiCallHistoryService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${calculation.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${calculation.batch.flush-every:100}")
+    private int flushEvery;
+
+    /**
+     * Calcula un lote recibido como arreglo JSON.
+     *
+     * @param requests Peticiones del lote (ya validadas)
+     * @return Resultados en el mismo orden que las peticiones
+     * @throws InvalidBatchException si el lote está vacío o supera el tamaño máximo
+     * @throws PercentageNotFoundException si no se puede obtener el porcentaje
+     */
+    public List<CalculationResponse> calculateBatch(List<CalculationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidBatchException("El lote debe contener al menos un elemento");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new InvalidBatchException("El lote supera el tamaño máximo permitido de " + maxBatchSize + " elementos");
+        }
+        return calculationService.calculateBatch(requests);
+    }
+
+    /**
+     * Procesa un lote NDJSON: lee una petición por línea y escribe un resultado por línea
+     * a medida que se calcula, sin cargar el lote completo en memoria.
+     * Los elementos inválidos, o cuya clave de porcentaje no se pudo obtener, generan una línea de error
+     * con su índice y no detienen el lote.
+     * Al terminar registra un único elemento en el historial con el resumen del lote.
+     *
+     * @param input Cuerpo NDJSON de la petición
+     * @param output Salida NDJSON de la respuesta
+     * @param percentage Porcentaje global obtenido previamente para todo el lote
+     * @param timestamp Fecha y hora de inicio de la petición
+     * @param endpoint Endpoint invocado, para el historial
+     * @param method Método HTTP, para el historial
+     * @return Resumen del lote procesado
+     */
+    public BatchCalculationSummary calculateNdjson(InputStream input, OutputStream output, Double percentage,
+                                                   LocalDateTime timestamp, String endpoint, String method) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int items = 0;
+        int processed = 0;
+        int errors = 0;
+        String errorMessage = null;
+
+        try (MappingIterator<CalculationRequest> iterator = objectMapper.readerFor(CalculationRequest.class).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                if (items >= maxBatchSize) {
+                    errorMessage = "El lote supera el tamaño máximo permitido de " + maxBatchSize + " elementos";
+                    writeLine(output, error(items, errorMessage, null));
+                    errors++;
+                    break;
+                }
+
+                CalculationRequest request = iterator.nextValue();
+                Map<String, String> violations = validate(request);
+                if (violations.isEmpty()) {
+                    try {
+                        Double itemPercentage = calculationService.getItemPercentage(request, percentage);
+                        writeLine(output, calculationService.calculate(request, itemPercentage, timestamp));
+                        processed++;
+                    } catch (PercentageNotFoundException e) {
+                        writeLine(output, error(items, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), null));
+                        errors++;
+                    }
+                } else {
+                    writeLine(output, error(items, "Error de validación en los datos de entrada", violations));
+                    errors++;
+                }
+                items++;
+
+                if (items % flushEvery == 0) {
+                    output.flush();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Una línea mal formada deja el parser en un estado no recuperable
+            errorMessage = "Línea NDJSON mal formada en el elemento " + items;
+            log.warn("{}: {}", errorMessage, e.getOriginalMessage());
+            writeLine(output, error(items, errorMessage, null));
+            errors++;
+        } catch (IOException e) {
+            saveBatchHistory(summary(items, processed, errors), timestamp, endpoint, method,
+                    HttpStatus.INTERNAL_SERVER_ERROR, System.currentTimeMillis() - startTime,
+                    "Error de E/S durante el lote: " + e.getMessage());
+            throw e;
+        }
+        output.flush();
+
+        BatchCalculationSummary summary = summary(items, processed, errors);
+        // Un lote cortado (tamaño máximo o línea mal formada) se registra como la línea de error que lo terminó
+        HttpStatus status = errorMessage != null ? HttpStatus.BAD_REQUEST : HttpStatus.OK;
+        saveBatchHistory(summary, timestamp, endpoint, method, status, System.currentTimeMillis() - startTime,
+                errorMessage);
+        log.debug("Lote NDJSON procesado: {}", summary);
+        return summary;
+    }
+
+    private BatchCalculationSummary summary(int items, int processed, int errors) {
+        return BatchCalculationSummary.builder()
+                .items(items)
+                .processed(processed)
+                .errors(errors)
+                .build();
+    }
+
+    private void saveBatchHistory(BatchCalculationSummary summary, LocalDateTime timestamp, String endpoint,
+                                  String method, HttpStatus status, long executionTime, String errorMessage) {
+        try {
+            apiCallHistoryService.saveHistory(timestamp, endpoint, method,
+                    objectMapper.writeValueAsString(Map.of("items", summary.getItems())),
+                    objectMapper.writeValueAsString(summary),
+                    status.value(), executionTime, errorMessage);
+        } catch (Exception e) {
+            log.warn("No se pudo registrar el historial del lote: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, String> validate(CalculationRequest request) {
+        if (request == null) {
+            return Map.of("request", "El elemento no puede ser nulo");
+        }
+        Set<ConstraintViolation<CalculationRequest>> violations = validator.validate(request);
+        Map<String, String> details = new LinkedHashMap<>();
+        for (ConstraintViolation<CalculationRequest> violation : violations) {
+            details.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return details;
+    }
+
+    private ErrorResponse error(int index, String message, Map<String, String> violations) {
+        return error(index, HttpStatus.BAD_REQUEST, message, violations);
+    }
+
+    private ErrorResponse error(int index, HttpStatus status, String message, Map<String, String> violations) {
+        Map<String, String> details = new LinkedHashMap<>();
+        details.put("index", String.valueOf(index));
+        if (violations != null) {
+            details.putAll(violations);
+        }
+        return ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status == HttpStatus.BAD_REQUEST ? "Validation Error" : status.getReasonPhrase())
+                .message(message)
+                .details(details)
+                .build();
+    }
+
+    private void writeLine(OutputStream output, Object value) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(value));
+        output.write(NEW_LINE);
+    }
+}
@@ -0,0 +1,224 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.entity.ApiCallHistory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escritor de historial por lotes.
+ * Acumula los registros en una cola en memoria acotada y un hilo dedicado los inserta
+ * con JDBC batch ({@link ApiCallHistoryBatchInserter}) cuando se alcanza el tamaño de lote
+ * o vence el tiempo de espera (linger).
+ * Cada escritura de lote se mide en {@code history.batch.flush} y su tamaño en {@code history.batch.size}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "history.writer.mode", havingValue = "batch")
+public class BatchingApiCallHistoryWriter implements ApiCallHistoryWriter {
+
+    private final ApiCallHistoryBatchInserter batchInserter;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryWriteLagRecorder writeLagRecorder;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    @Value("${history.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${history.writer.linger-ms:200}")
+    private long lingerMs;
+
+    @Value("${history.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<ApiCallHistory> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    public BatchingApiCallHistoryWriter(ApiCallHistoryBatchInserter batchInserter,
+                                        TransactionTemplate transactionTemplate,
+                                        HistoryWriteLagRecorder writeLagRecorder,
+                                        MeterRegistry meterRegistry) {
+        this.batchInserter = batchInserter;
+        this.transactionTemplate = transactionTemplate;
+        this.writeLagRecorder = writeLagRecorder;
+        this.flushTimer = Timer.builder("history.batch.flush")
+                .description("Duración de la inserción de un lote de historial, incluido el commit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("history.batch.size")
+                .description("Registros por lote de historial insertado")
+                .baseUnit("records")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::run, "api-history-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Escritor de historial por lotes iniciado: batch-size={}, linger={}ms, capacidad={}",
+                batchSize, lingerMs, queueCapacity);
+    }
+
+    /**
+     * Detiene el hilo de escritura tras vaciar la cola pendiente.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("Se descartan {} registros de historial pendientes al apagar", queue.size());
+        }
+    }
+
+    /**
+     * Encola el registro sin bloquear. Si la cola está llena el registro se descarta
+     * y se contabiliza, para no afectar la latencia de la petición.
+     */
+    @Override
+    public void write(ApiCallHistory history) {
+        if (!queue.offer(history)) {
+            dropped.increment();
+            log.warn("Cola de historial llena ({}), registro descartado para endpoint: {}",
+                    queueCapacity, history.getEndpoint());
+        }
+    }
+
+    private void run() {
+        List<ApiCallHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Espera el primer registro y luego acumula hasta completar el lote o agotar el linger.
+     */
+    private void collectBatch(List<ApiCallHistory> batch) throws InterruptedException {
+        ApiCallHistory first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            ApiCallHistory next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    void flush(List<ApiCallHistory> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchInserter.insert(batch));
+            writeLagRecorder.committed(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            log.error("Error al guardar lote de historial de {} registros: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+            lastBatchSize.set(batch.size());
+            log.debug("Lote de historial de {} registros escrito en {} ms",
+                    batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    /**
+     * @return Registros pendientes en la cola
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return Registros insertados correctamente
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * @return Registros de lotes cuya inserción falló
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Registros descartados por cola llena
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Número de lotes escritos
+     */
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    /**
+     * @return Tamaño medio de lote desde el arranque
+     */
+    public double getAverageBatchSize() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : (double) (written.sum() + failed.sum()) / count;
+    }
+
+    /**
+     * @return Tamaño del último lote escrito
+     */
+    public long getLastBatchSize() {
+        return lastBatchSize.get();
+    }
+}
@@ -3,15 +3,25 @@ package com.tekton.backend.service;
 import com.tekton.backend.dto.CalculationRequest;
 import com.tekton.backend.dto.CalculationResponse;
 import com.tekton.backend.exception.PercentageNotFoundException;
+import com.tekton.backend.util.ServerTiming;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servicio para realizar cálculos con porcentaje dinámico.
  * Suma num1 + num2 y aplica un porcentaje adicional obtenido del servicio externo.
+ * Las peticiones con {@code rateKey} usan el porcentaje de esa clave ({@link RatePercentageService});
+ * las demás, el porcentaje global ({@link PercentageCacheService}).
  */
 @Slf4j
 @Service
@@ -19,6 +29,7 @@ import java.time.LocalDateTime;
 public class CalculationService {
 
     private final PercentageCacheService percentageCacheService;
+    private final RatePercentageService ratePercentageService;
 
     /**
      * Calcula el resultado: suma num1 + num2 y aplica el porcentaje obtenido del servicio externo.
@@ -29,13 +40,103 @@ public class CalculationService {
      * @return CalculationResponse con el resultado del cálculo
      * @throws PercentageNotFoundException si no se puede obtener el porcentaje
      */
+    @Timed(value = "calculation.duration", description = "Duración de CalculationService.calculate",
+            percentiles = {0.5, 0.95, 0.99})
     public CalculationResponse calculate(CalculationRequest request) {
         log.debug("Iniciando cálculo para num1={}, num2={}", request.getNum1(), request.getNum2());
 
         // Obtener porcentaje del servicio externo o caché
-        Double percentage = percentageCacheService.getPercentage();
+        Double percentage = request.getRateKey() != null
+                ? ratePercentageService.getPercentage(request.getRateKey())
+                : percentageCacheService.getPercentage();
         log.debug("Porcentaje obtenido: {}", percentage);
 
+        long start = ServerTiming.start();
+        CalculationResponse response = calculate(request, percentage, LocalDateTime.now());
+        ServerTiming.record(ServerTiming.Stage.CALCULATION, start);
+        return response;
+    }
+
+    /**
+     * Variante sin bloqueo de {@link #calculate(CalculationRequest)}: el cálculo se aplica cuando
+     * llega el porcentaje, en el hilo que completa la consulta al servicio externo.
+     *
+     * @param request Request con num1 y num2
+     * @return Future con el resultado; falla con {@link PercentageNotFoundException} si no se puede obtener el porcentaje
+     */
+    public CompletableFuture<CalculationResponse> calculateAsync(CalculationRequest request) {
+        log.debug("Iniciando cálculo sin bloqueo para num1={}, num2={}", request.getNum1(), request.getNum2());
+        CompletableFuture<Double> lookup = request.getRateKey() != null
+                ? ratePercentageService.getPercentageAsync(request.getRateKey())
+                : percentageCacheService.getPercentageAsync();
+        return lookup.thenApply(percentage -> calculate(request, percentage, LocalDateTime.now()));
+    }
+
+    /**
+     * Calcula un lote de peticiones obteniendo cada porcentaje una sola vez para todo el lote:
+     * el global si alguna petición no tiene clave, y los de todas las claves con una sola carga.
+     *
+     * @param requests Peticiones del lote
+     * @return Resultados en el mismo orden que las peticiones
+     * @throws PercentageNotFoundException si no se puede obtener algún porcentaje
+     */
+    public List<CalculationResponse> calculateBatch(List<CalculationRequest> requests) {
+        log.debug("Iniciando cálculo por lote de {} elementos", requests.size());
+
+        Set<String> rateKeys = new HashSet<>();
+        boolean global = false;
+        for (CalculationRequest request : requests) {
+            if (request.getRateKey() != null) {
+                rateKeys.add(request.getRateKey());
+            } else {
+                global = true;
+            }
+        }
+        Double percentage = global ? percentageCacheService.getPercentage() : null;
+        Map<String, Double> ratePercentages = rateKeys.isEmpty() ? Map.of() : ratePercentageService.getPercentages(rateKeys);
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        long start = ServerTiming.start();
+        List<CalculationResponse> responses = new ArrayList<>(requests.size());
+        for (CalculationRequest request : requests) {
+            Double itemPercentage = request.getRateKey() != null ? ratePercentages.get(request.getRateKey()) : percentage;
+            responses.add(calculate(request, itemPercentage, timestamp));
+        }
+        ServerTiming.record(ServerTiming.Stage.CALCULATION, start);
+        return responses;
+    }
+
+    /**
+     * Porcentaje de un elemento de un lote procesado por streaming.
+     *
+     * @param request Elemento del lote
+     * @param batchPercentage Porcentaje global obtenido al iniciar el lote
+     * @return El porcentaje de la clave del elemento, o el global si no tiene clave
+     * @throws PercentageNotFoundException si no se puede obtener el porcentaje de la clave
+     */
+    public Double getItemPercentage(CalculationRequest request, Double batchPercentage) {
+        return request.getRateKey() != null ? ratePercentageService.getPercentage(request.getRateKey()) : batchPercentage;
+    }
+
+    /**
+     * Obtiene el porcentaje a aplicar en un lote procesado por streaming.
+     *
+     * @return Porcentaje obtenido del servicio externo o caché
+     * @throws PercentageNotFoundException si no se puede obtener el porcentaje
+     */
+    public Double getBatchPercentage() {
+        return percentageCacheService.getPercentage();
+    }
+
+    /**
+     * Aplica un porcentaje ya obtenido: (num1 + num2) * (1 + percentage / 100)
+     *
+     * @param request Request con num1 y num2
+     * @param percentage Porcentaje a aplicar
+     * @param timestamp Fecha y hora del cálculo
+     * @return CalculationResponse con el resultado del cálculo
+     */
+    public CalculationResponse calculate(CalculationRequest request, Double percentage, LocalDateTime timestamp) {
         // Calcular suma
         Double sum = request.getNum1() + request.getNum2();
         log.debug("Suma calculada: {}", sum);
@@ -50,7 +151,7 @@ public class CalculationService {
                 .num2(request.getNum2())
                 .sum(sum)
                 .percentage(percentage)
-                .timestamp(LocalDateTime.now())
+                .timestamp(timestamp)
                 .build();
     }
 }
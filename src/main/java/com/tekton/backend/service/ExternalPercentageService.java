@@ -1,34 +1,178 @@
 package com.tekton.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.util.CircuitBreaker;
+import com.tekton.backend.util.ConnectionLimitingInterceptor;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Servicio para consumir el servicio externo de porcentaje.
  * Usa RestTemplate para realizar llamadas HTTP al servicio mock (SoapUI o similar).
+ * Las llamadas pasan por un circuit breaker: mientras el servicio falla o responde lento
+ * se rechazan de inmediato en lugar de esperar el timeout.
+ *
+ * {@link #getPercentageAsync()} hace la misma llamada sin bloquear, con {@code sendAsync} del HttpClient
+ * del JDK que usa el RestTemplate; la respuesta se procesa en los hilos del cliente. Como {@code sendAsync} no
+ * pasa por el RestTemplate, el límite de conexiones y el deadline total se aplican con
+ * {@link ConnectionLimitingInterceptor#executeAsync}, con los mismos errores que la llamada bloqueante.
+ *
+ * {@link #getPercentagesAsync} obtiene de la misma forma los porcentajes por clave (tenant o producto) de
+ * {@code external.service.percentage.rates-url}, varias claves por petición, con un circuit breaker propio.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExternalPercentageService {
 
+    private static final TypeReference<Map<String, Double>> RATES_TYPE = new TypeReference<>() {
+    };
+
     private final RestTemplate restTemplate;
+    private final CircuitBreaker percentageCircuitBreaker;
+    private final HttpClient percentageHttpClient;
+    private final CircuitBreaker ratesCircuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final ConnectionLimitingInterceptor percentageConnectionPool;
 
     @Value("${external.service.percentage.url}")
     private String serviceUrl;
 
+    @Value("${external.service.percentage.read-timeout-ms:${external.service.percentage.timeout:5000}}")
+    private long readTimeoutMs = 5000;
+
+    @Value("${external.service.percentage.rates-url:}")
+    private String ratesUrl;
+
+    @Value("${external.service.percentage.rates-max-keys-per-request:100}")
+    private int maxKeysPerRequest = 100;
+
     /**
      * Obtiene el porcentaje desde el servicio externo.
      * 
      * @return Porcentaje como Double
      * @throws RestClientException si el servicio no está disponible
+     * @throws CircuitBreaker.CallNotPermittedException si el circuito está abierto
      */
+    @Timed(value = "percentage.upstream.duration", description = "Duración de las llamadas al servicio externo de porcentaje",
+            percentiles = {0.5, 0.95, 0.99})
     public Double getPercentage() {
+        return percentageCircuitBreaker.execute(this::fetchPercentage);
+    }
+
+    /**
+     * Obtiene el porcentaje desde el servicio externo sin bloquear el hilo que llama.
+     * El circuit breaker registra el resultado cuando la respuesta llega.
+     *
+     * @return Future con el porcentaje; falla con {@link RestClientException} si el servicio no está
+     *         disponible o con {@link CircuitBreaker.CallNotPermittedException} si el circuito está abierto
+     */
+    @Timed(value = "percentage.upstream.duration", description = "Duración de las llamadas al servicio externo de porcentaje",
+            percentiles = {0.5, 0.95, 0.99})
+    public CompletableFuture<Double> getPercentageAsync() {
+        if (!percentageCircuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(
+                    new CircuitBreaker.CallNotPermittedException(percentageCircuitBreaker.getName()));
+        }
+        long start = System.nanoTime();
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(serviceUrl))
+                    .timeout(Duration.ofMillis(readTimeoutMs))
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            percentageCircuitBreaker.onResult(true, System.nanoTime() - start);
+            return CompletableFuture.failedFuture(new RestClientException("URL del servicio externo inválida: " + serviceUrl, e));
+        }
+
+        log.debug("Llamando al servicio externo sin bloqueo: {}", serviceUrl);
+        return sendAsync(request)
+                .handle((response, error) -> {
+                    try {
+                        if (error != null) {
+                            throw ioError(error);
+                        }
+                        Double percentage = parsePercentage(response);
+                        percentageCircuitBreaker.onResult(false, System.nanoTime() - start);
+                        return percentage;
+                    } catch (RestClientException e) {
+                        percentageCircuitBreaker.onResult(true, System.nanoTime() - start);
+                        log.error("Error al llamar al servicio externo: {}", e.getMessage());
+                        throw e;
+                    }
+                });
+    }
+
+    /**
+     * Obtiene sin bloquear los porcentajes de varias claves con {@code GET rates-url?keys=a,b,c}, que responde
+     * un objeto JSON clave -> porcentaje. Las claves se envían en grupos de {@code rates-max-keys-per-request};
+     * cada grupo pasa por el circuit breaker de los porcentajes por clave.
+     *
+     * @param keys Claves a consultar
+     * @return Future con los porcentajes por clave, sin las claves desconocidas para el servicio externo; falla con
+     *         {@link RestClientException} si el servicio no está disponible o con
+     *         {@link CircuitBreaker.CallNotPermittedException} si el circuito está abierto
+     */
+    @Timed(value = "percentage.upstream.duration", description = "Duración de las llamadas al servicio externo de porcentaje",
+            percentiles = {0.5, 0.95, 0.99})
+    public CompletableFuture<Map<String, Double>> getPercentagesAsync(Collection<? extends String> keys) {
+        if (ratesUrl == null || ratesUrl.isBlank()) {
+            return CompletableFuture.failedFuture(new RestClientException(
+                    "No hay servicio externo de porcentajes por clave (external.service.percentage.rates-url)"));
+        }
+        List<CompletableFuture<Map<String, Double>>> calls = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() >= maxKeysPerRequest) {
+                calls.add(fetchPercentagesAsync(chunk));
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            calls.add(fetchPercentagesAsync(chunk));
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<String, Double> percentages = new HashMap<>();
+            calls.forEach(call -> percentages.putAll(call.join()));
+            return percentages;
+        });
+    }
+
+    /**
+     * @return Estado actual del circuit breaker del servicio externo
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return percentageCircuitBreaker.getState();
+    }
+
+    private Double fetchPercentage() {
         try {
             log.debug("Llamando al servicio externo: {}", serviceUrl);
             ResponseEntity<Double> response = restTemplate.getForEntity(serviceUrl, Double.class);
@@ -44,4 +188,84 @@ public class ExternalPercentageService {
             throw e;
         }
     }
+
+    private CompletableFuture<Map<String, Double>> fetchPercentagesAsync(List<String> keys) {
+        if (!ratesCircuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new CircuitBreaker.CallNotPermittedException(ratesCircuitBreaker.getName()));
+        }
+        long start = System.nanoTime();
+        HttpRequest request;
+        try {
+            URI uri = UriComponentsBuilder.fromUriString(ratesUrl)
+                    .queryParam("keys", String.join(",", keys))
+                    .encode()
+                    .build()
+                    .toUri();
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(readTimeoutMs))
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            ratesCircuitBreaker.onResult(true, System.nanoTime() - start);
+            return CompletableFuture.failedFuture(
+                    new RestClientException("URL del servicio externo de porcentajes por clave inválida: " + ratesUrl, e));
+        }
+
+        log.debug("Llamando al servicio externo de porcentajes por clave: {} claves", keys.size());
+        return sendAsync(request)
+                .handle((response, error) -> {
+                    try {
+                        if (error != null) {
+                            throw ioError(error);
+                        }
+                        Map<String, Double> percentages = parsePercentages(response);
+                        ratesCircuitBreaker.onResult(false, System.nanoTime() - start);
+                        return percentages;
+                    } catch (RestClientException e) {
+                        ratesCircuitBreaker.onResult(true, System.nanoTime() - start);
+                        log.error("Error al llamar al servicio externo de porcentajes por clave: {}", e.getMessage());
+                        throw e;
+                    }
+                });
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return percentageConnectionPool.executeAsync(request.uri().getHost(),
+                () -> percentageHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private Map<String, Double> parsePercentages(HttpResponse<String> response) {
+        String body = response.body();
+        if (response.statusCode() / 100 != 2 || body == null || body.isBlank()) {
+            throw new RestClientException("El servicio externo retornó un código de estado inválido: " + response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(body, RATES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new RestClientException("El servicio externo retornó porcentajes inválidos: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static RestClientException ioError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RestClientException restClientException) {
+            return restClientException;
+        }
+        return new RestClientException("Error de E/S al llamar al servicio externo: " + cause, cause);
+    }
+
+    private Double parsePercentage(HttpResponse<String> response) {
+        String body = response.body();
+        if (response.statusCode() / 100 != 2 || body == null || body.isBlank()) {
+            throw new RestClientException("El servicio externo retornó un código de estado inválido: " + response.statusCode());
+        }
+        try {
+            Double percentage = Double.valueOf(body.trim());
+            log.debug("Porcentaje obtenido del servicio externo: {}", percentage);
+            return percentage;
+        } catch (NumberFormatException e) {
+            throw new RestClientException("El servicio externo retornó un porcentaje inválido: " + body, e);
+        }
+    }
 }
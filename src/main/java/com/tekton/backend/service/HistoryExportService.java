@@ -0,0 +1,256 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.tekton.backend.dto.ApiCallHistoryResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exporta el historial en streaming (NDJSON o CSV) con memoria constante.
+ *
+ * Las filas se leen con un cursor del servidor: dentro de una transacción de solo lectura
+ * (autocommit desactivado) el driver de PostgreSQL trae {@code history.export.fetch-size} filas
+ * por viaje, y cada fila se escribe en la respuesta al leerla. No se construye una Page ni se
+ * cargan entidades en el contexto de persistencia, y no se ejecuta la consulta de conteo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryExportService {
+
+    private static final String SELECT_SQL = "SELECT id, timestamp, endpoint, method, request_body, response_body, "
+            + "request_body_compressed, response_body_compressed, status_code, execution_time_ms, error_message "
+            + "FROM api_call_history";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Formato de exportación y su content type.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final HistoryPayloadCodec payloadCodec;
+
+    @Value("${history.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Escribe en {@code output} el historial que cumple los filtros, ordenado por timestamp e id.
+     * Los filtros son los mismos que los de {@link ApiCallHistoryService#getHistory}.
+     *
+     * @param format Formato de salida
+     * @param endpoint Filtro por endpoint (opcional)
+     * @param startDate Fecha de inicio (opcional)
+     * @param endDate Fecha de fin (opcional)
+     * @param output Destino; no se cierra
+     * @return Filas exportadas
+     * @throws IOException si falla la escritura (p. ej. el cliente cerró la conexión)
+     */
+    public long export(Format format, String endpoint, LocalDate startDate, LocalDate endDate, OutputStream output)
+            throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (endpoint != null && !endpoint.isEmpty()) {
+            conditions.add("endpoint = ?");
+            args.add(endpoint);
+        }
+        if (startDate != null) {
+            conditions.add("timestamp >= ?");
+            args.add(Timestamp.valueOf(startDate.atStartOfDay()));
+        }
+        if (endDate != null) {
+            conditions.add("timestamp < ?");
+            args.add(Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY timestamp, id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        long[] rows = new long[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(toResponse(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+            rowWriter.finish();
+        } catch (UncheckedIOException e) {
+            log.warn("Exportación del historial interrumpida tras {} filas: {}", rows[0], e.getMessage());
+            throw e.getCause();
+        }
+        log.info("Exportadas {} filas del historial en formato {}", rows[0], format);
+        return rows[0];
+    }
+
+    private ApiCallHistoryResponse toResponse(ResultSet rs) throws SQLException {
+        return ApiCallHistoryResponse.builder()
+                .id(rs.getLong("id"))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .endpoint(rs.getString("endpoint"))
+                .method(rs.getString("method"))
+                .requestBody(payloadCodec.decode(rs.getString("request_body"), rs.getBytes("request_body_compressed")))
+                .responseBody(payloadCodec.decode(rs.getString("response_body"), rs.getBytes("response_body_compressed")))
+                .statusCode(rs.getInt("status_code"))
+                .executionTimeMs(rs.getObject("execution_time_ms", Long.class))
+                .errorMessage(rs.getString("error_message"))
+                .build();
+    }
+
+    private interface RowWriter {
+
+        void write(ApiCallHistoryResponse row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Un objeto JSON por línea, con el mismo formato que los elementos de /api/history.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private SequenceWriter sequence;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ApiCallHistoryResponse row) throws IOException {
+            if (sequence == null) {
+                sequence = objectMapper.writerFor(ApiCallHistoryResponse.class)
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer);
+            }
+            sequence.write(row);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (sequence != null) {
+                sequence.flush();
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * CSV según RFC 4180: los campos con comas, comillas o saltos de línea van entre comillas.
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private static final String HEADER = "id,timestamp,endpoint,method,statusCode,executionTimeMs,"
+                + "requestBody,responseBody,errorMessage\r\n";
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(HEADER);
+        }
+
+        @Override
+        public void write(ApiCallHistoryResponse row) throws IOException {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.getTimestamp()));
+            writer.write(',');
+            writeField(row.getEndpoint());
+            writer.write(',');
+            writeField(row.getMethod());
+            writer.write(',');
+            writer.write(String.valueOf(row.getStatusCode()));
+            writer.write(',');
+            writeField(row.getExecutionTimeMs() != null ? row.getExecutionTimeMs().toString() : null);
+            writer.write(',');
+            writeField(row.getRequestBody());
+            writer.write(',');
+            writeField(row.getResponseBody());
+            writer.write(',');
+            writeField(row.getErrorMessage());
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.entity.ApiCallHistory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Política de sobrecarga para el executor apiHistoryExecutor.
+ * Decide qué hacer con un registro de historial cuando el executor lo rechaza por estar saturado,
+ * de forma que la captura del historial se degrade sin afectar la petición del usuario.
+ *
+ * Políticas (propiedad {@code async.executor.overload-policy}):
+ * <ul>
+ *   <li>{@code drop}: descarta el registro y lo contabiliza.</li>
+ *   <li>{@code sample}: conserva 1 de cada N registros (y siempre los errores) en un buffer acotado.</li>
+ *   <li>{@code coalesce}: agrega los registros por endpoint, método y status en un registro resumen.</li>
+ *   <li>{@code spill}: escribe los registros en un archivo local para reintentarlos más tarde. La petición solo
+ *       los encola ({@code overflow-capacity} como máximo); un hilo propio los serializa y los agrega al archivo,
+ *       y con la cola llena se descartan y se contabilizan.</li>
+ * </ul>
+ * Los registros conservados se devuelven con {@link #drain(int)} cuando el executor tiene capacidad.
+ * Los registros leídos del archivo de spill solo se eliminan del disco al confirmar su persistencia con
+ * {@link #commitDrain()}; con {@link #abortDrain()} (o tras un reinicio) se vuelven a leer desde la última
+ * posición confirmada, por lo que un fallo de la base de datos no los pierde (entrega al menos una vez).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HistoryOverloadHandler {
+
+    public enum Policy { DROP, SAMPLE, COALESCE, SPILL }
+
+    private static final String SPILL_FILE = "history-spill.ndjson";
+    private static final String REPLAY_FILE = "history-spill.replay";
+    private static final String OFFSET_FILE = "history-spill.offset";
+    private static final int SPILL_BATCH = 100;
+    private static final long SPILL_POLL_MS = 200;
+
+    private final ObjectMapper objectMapper;
+    private final HistoryPayloadCodec payloadCodec;
+
+    @Value("${async.executor.overload-policy:drop}")
+    private String policyName;
+
+    @Value("${async.executor.sample-rate:10}")
+    private int sampleRate;
+
+    @Value("${async.executor.overflow-capacity:1000}")
+    private int overflowCapacity;
+
+    @Value("${async.executor.spill-dir:${java.io.tmpdir}/tekton-history-spill}")
+    private Path spillDir;
+
+    private Policy policy;
+
+    private final Queue<ApiCallHistory> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+    private final ConcurrentMap<String, CoalescedCalls> coalesced = new ConcurrentHashMap<>();
+    private final AtomicInteger sampleCounter = new AtomicInteger();
+
+    private BlockingQueue<ApiCallHistory> spillQueue;
+    private Thread spillThread;
+    private volatile boolean spillRunning;
+
+    // ReentrantLock en lugar de synchronized: la E/S de archivo no fija (pin) hilos virtuales
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private BufferedWriter spillWriter;
+    private BufferedReader replayReader;
+    private volatile boolean spillPending;
+    // Líneas del archivo de replay ya persistidas y líneas leídas (confirmadas o no)
+    private long replayCommittedLines;
+    private long replayReadLines;
+    private boolean replayExhausted;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        policy = Policy.valueOf(policyName.trim().toUpperCase());
+        if (policy == Policy.SPILL) {
+            Files.createDirectories(spillDir);
+            spillPending = Files.exists(spillDir.resolve(REPLAY_FILE)) || size(spillDir.resolve(SPILL_FILE)) > 0;
+            replayCommittedLines = readCommittedOffset();
+            spillQueue = new ArrayBlockingQueue<>(Math.max(1, overflowCapacity));
+            spillRunning = true;
+            spillThread = new Thread(this::runSpill, "history-spill");
+            spillThread.setDaemon(true);
+            spillThread.start();
+        }
+        log.info("Política de sobrecarga del historial: {}", policy);
+    }
+
+    /**
+     * Detiene el hilo de spill tras escribir los registros encolados y cierra los archivos.
+     */
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        if (spillThread != null) {
+            spillRunning = false;
+            spillThread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        spillLock.lock();
+        try {
+            if (spillWriter != null) {
+                spillWriter.close();
+            }
+            if (replayReader != null) {
+                replayReader.close();
+            }
+        } finally {
+            spillLock.unlock();
+        }
+        int pending = overflowSize.get() + coalesced.size() + (spillQueue != null ? spillQueue.size() : 0);
+        if (pending > 0) {
+            log.warn("Se descartan {} registros de historial en memoria al apagar", pending);
+        }
+    }
+
+    /**
+     * Aplica la política de sobrecarga a un registro rechazado por el executor.
+     * Nunca lanza excepción.
+     */
+    public void onRejected(ApiCallHistory history) {
+        rejected.increment();
+        try {
+            switch (policy) {
+                case SAMPLE -> sample(history);
+                case COALESCE -> coalesce(history);
+                case SPILL -> spill(history);
+                default -> drop(history);
+            }
+        } catch (Exception e) {
+            log.warn("Error al aplicar política de sobrecarga {}: {}", policy, e.getMessage());
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @return true si hay registros conservados pendientes de persistir
+     */
+    public boolean hasPending() {
+        return overflowSize.get() > 0 || !coalesced.isEmpty() || spillPending
+                || (spillQueue != null && !spillQueue.isEmpty());
+    }
+
+    /**
+     * Extrae hasta {@code max} registros conservados para persistirlos.
+     * Quien llama debe invocar {@link #commitDrain()} tras persistirlos o {@link #abortDrain()} si falla.
+     */
+    public List<ApiCallHistory> drain(int max) {
+        List<ApiCallHistory> records = new ArrayList<>(Math.min(max, 64));
+        ApiCallHistory next;
+        while (records.size() < max && (next = overflow.poll()) != null) {
+            overflowSize.decrementAndGet();
+            records.add(next);
+        }
+
+        Iterator<String> keys = coalesced.keySet().iterator();
+        while (records.size() < max && keys.hasNext()) {
+            CoalescedCalls calls = coalesced.remove(keys.next());
+            if (calls != null) {
+                records.add(calls.toHistory());
+            }
+        }
+
+        if (records.size() < max && spillPending) {
+            readSpill(records, max);
+        }
+        return records;
+    }
+
+    /**
+     * Confirma que los registros del último {@link #drain(int)} se persistieron: avanza la posición
+     * confirmada del archivo de spill y lo elimina cuando se ha leído por completo.
+     */
+    public void commitDrain() {
+        spillLock.lock();
+        try {
+            if (replayReadLines == replayCommittedLines && !replayExhausted) {
+                return;
+            }
+            replayCommittedLines = replayReadLines;
+            if (replayExhausted) {
+                closeReplay();
+                Files.deleteIfExists(spillDir.resolve(REPLAY_FILE));
+                Files.deleteIfExists(spillDir.resolve(OFFSET_FILE));
+                replayCommittedLines = 0;
+                spillPending = size(spillDir.resolve(SPILL_FILE)) > 0;
+            } else {
+                writeCommittedOffset(replayCommittedLines);
+            }
+        } catch (IOException e) {
+            log.error("Error al confirmar la posición del archivo de spill del historial: {}", e.getMessage(), e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Descarta la lectura del último {@link #drain(int)}: los registros del archivo de spill se volverán
+     * a leer desde la última posición confirmada. Los registros en memoria no se recuperan.
+     */
+    public void abortDrain() {
+        spillLock.lock();
+        try {
+            closeReplay();
+        } catch (IOException e) {
+            log.warn("Error al cerrar el archivo de replay del historial: {}", e.getMessage());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private void drop(ApiCallHistory history) {
+        dropped.increment();
+        log.debug("Executor de historial saturado, registro descartado para endpoint: {}", history.getEndpoint());
+    }
+
+    private void sample(ApiCallHistory history) {
+        boolean isError = history.getStatusCode() != null && history.getStatusCode() >= 500;
+        boolean keep = isError || Math.floorMod(sampleCounter.getAndIncrement(), Math.max(sampleRate, 1)) == 0;
+        if (keep && overflowSize.incrementAndGet() <= overflowCapacity) {
+            overflow.add(history);
+            sampled.increment();
+            return;
+        }
+        if (keep) {
+            overflowSize.decrementAndGet();
+        }
+        drop(history);
+    }
+
+    private void coalesce(ApiCallHistory history) {
+        String key = history.getEndpoint() + '|' + history.getMethod() + '|' + history.getStatusCode();
+        // compute() es atómico respecto a remove() en drain(), así no se pierden llamadas agregadas
+        coalesced.compute(key, (k, calls) -> {
+            CoalescedCalls target = calls != null ? calls : new CoalescedCalls(history);
+            target.add(history);
+            return target;
+        });
+        coalescedCount.increment();
+    }
+
+    private void spill(ApiCallHistory history) {
+        if (!spillQueue.offer(history)) {
+            drop(history);
+        }
+    }
+
+    private void runSpill() {
+        List<ApiCallHistory> batch = new ArrayList<>(SPILL_BATCH);
+        while (spillRunning || !spillQueue.isEmpty()) {
+            try {
+                ApiCallHistory first = spillQueue.poll(SPILL_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                spillQueue.drainTo(batch, SPILL_BATCH - 1);
+                writeSpill(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Serializa los registros fuera del lock y los agrega al archivo de spill con un solo flush.
+     */
+    private void writeSpill(List<ApiCallHistory> batch) {
+        List<String> lines = new ArrayList<>(batch.size());
+        for (ApiCallHistory history : batch) {
+            try {
+                payloadCodec.materialize(history);
+                lines.add(objectMapper.writeValueAsString(history));
+            } catch (Exception e) {
+                log.warn("Error al serializar registro de historial para spill: {}", e.getMessage());
+                dropped.increment();
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        spillLock.lock();
+        try {
+            if (spillWriter == null) {
+                spillWriter = Files.newBufferedWriter(spillDir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (String line : lines) {
+                spillWriter.write(line);
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+            spillPending = true;
+            spilled.add(lines.size());
+        } catch (IOException e) {
+            log.error("Error al escribir {} registros en el archivo de spill del historial: {}",
+                    lines.size(), e.getMessage(), e);
+            dropped.add(lines.size());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Lee registros del archivo de spill. El archivo activo se rota a un archivo de replay
+     * para que las nuevas escrituras no se mezclen con la lectura. El archivo de replay no se
+     * elimina aquí sino en {@link #commitDrain()}.
+     */
+    private void readSpill(List<ApiCallHistory> records, int max) {
+        spillLock.lock();
+        try {
+            if (replayExhausted) {
+                // Lectura completa pendiente de confirmar
+                return;
+            }
+            Path replay = spillDir.resolve(REPLAY_FILE);
+            if (replayReader == null) {
+                if (!Files.exists(replay)) {
+                    if (spillWriter != null) {
+                        spillWriter.close();
+                        spillWriter = null;
+                    }
+                    Path spill = spillDir.resolve(SPILL_FILE);
+                    if (size(spill) == 0) {
+                        spillPending = false;
+                        return;
+                    }
+                    Files.move(spill, replay, StandardCopyOption.ATOMIC_MOVE);
+                    replayCommittedLines = 0;
+                }
+                replayReader = Files.newBufferedReader(replay, StandardCharsets.UTF_8);
+                replayReadLines = 0;
+                while (replayReadLines < replayCommittedLines && replayReader.readLine() != null) {
+                    replayReadLines++;
+                }
+            }
+
+            String line;
+            while (records.size() < max && (line = replayReader.readLine()) != null) {
+                replayReadLines++;
+                if (!line.isBlank()) {
+                    records.add(objectMapper.readValue(line, ApiCallHistory.class));
+                }
+            }
+            replayExhausted = records.size() < max;
+        } catch (IOException e) {
+            log.error("Error al leer el archivo de spill del historial: {}", e.getMessage(), e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private void closeReplay() throws IOException {
+        replayExhausted = false;
+        replayReadLines = replayCommittedLines;
+        if (replayReader != null) {
+            replayReader.close();
+            replayReader = null;
+        }
+    }
+
+    private long readCommittedOffset() throws IOException {
+        Path offset = spillDir.resolve(OFFSET_FILE);
+        if (!Files.exists(offset) || !Files.exists(spillDir.resolve(REPLAY_FILE))) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(offset, StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeCommittedOffset(long lines) throws IOException {
+        Path tmp = spillDir.resolve(OFFSET_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(lines), StandardCharsets.UTF_8);
+        Files.move(tmp, spillDir.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long size(Path path) throws IOException {
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    /**
+     * Acumulador de llamadas agregadas por endpoint, método y status.
+     * Solo se modifica dentro de ConcurrentMap.compute(), que serializa el acceso por clave.
+     */
+    private final class CoalescedCalls {
+
+        private final ApiCallHistory first;
+        private long count;
+        private long totalExecutionTimeMs;
+        private String lastErrorMessage;
+
+        private CoalescedCalls(ApiCallHistory first) {
+            this.first = first;
+        }
+
+        private void add(ApiCallHistory history) {
+            count++;
+            if (history.getExecutionTimeMs() != null) {
+                totalExecutionTimeMs += history.getExecutionTimeMs();
+            }
+            if (history.getErrorMessage() != null) {
+                lastErrorMessage = history.getErrorMessage();
+            }
+        }
+
+        private ApiCallHistory toHistory() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("coalescedCalls", count);
+            summary.put("totalExecutionTimeMs", totalExecutionTimeMs);
+            String responseBody;
+            try {
+                responseBody = objectMapper.writeValueAsString(summary);
+            } catch (Exception e) {
+                responseBody = null;
+            }
+            return ApiCallHistory.builder()
+                    .timestamp(first.getTimestamp())
+                    .endpoint(first.getEndpoint())
+                    .method(first.getMethod())
+                    .statusCode(first.getStatusCode())
+                    .executionTimeMs(count == 0 ? 0 : totalExecutionTimeMs / count)
+                    .responseBody(responseBody)
+                    .errorMessage(lastErrorMessage)
+                    .build();
+        }
+    }
+}
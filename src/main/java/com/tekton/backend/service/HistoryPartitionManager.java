@@ -0,0 +1,249 @@
+package com.tekton.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene las particiones por rango de timestamp de api_call_history.
+ *
+ * Crea por adelantado la partición del periodo actual y las de los siguientes periodos, y aplica
+ * la retención eliminando particiones completas en lugar de borrar filas, lo que evita el bloat
+ * y el vacuum de un DELETE masivo. Con los rollups activos, solo se eliminan datos ya agregados.
+ * Si la partición por defecto ya contiene filas del periodo a crear, se mueven a la nueva
+ * partición en la misma transacción. Solo se crean el periodo actual y los siguientes: las filas de días
+ * pasados que ya están en la partición por defecto (p. ej. de antes de activar el gestor) nunca se mueven
+ * y solo salen de ella con el DELETE de la retención.
+ *
+ * Activo por defecto ({@code history.partition.enabled=false} lo desactiva, p. ej. si otra herramienta
+ * gestiona el DDL). El primer mantenimiento se ejecuta al terminar el arranque, no durante la creación del bean.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "history.partition.enabled", havingValue = "true", matchIfMissing = true)
+public class HistoryPartitionManager {
+
+    static final String TABLE = "api_call_history";
+    static final String DEFAULT_PARTITION = "api_call_history_default";
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) "
+            + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = '" + TABLE + "'::regclass";
+
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+
+    /**
+     * Granularidad de las particiones.
+     */
+    public enum Interval {
+        DAY(DateTimeFormatter.ofPattern("yyyyMMdd")),
+        MONTH(DateTimeFormatter.ofPattern("yyyyMM"));
+
+        private final DateTimeFormatter suffix;
+
+        Interval(DateTimeFormatter suffix) {
+            this.suffix = suffix;
+        }
+
+        public static Interval from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+
+        LocalDate start(LocalDate date) {
+            return this == DAY ? date : date.withDayOfMonth(1);
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+        }
+
+        String partitionName(LocalDate start) {
+            return TABLE + "_p" + suffix.format(start);
+        }
+    }
+
+    /**
+     * Partición existente; {@code from} y {@code to} son null para la partición por defecto.
+     */
+    record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean isDefault() {
+            return from == null;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return !isDefault() && from.isBefore(end) && start.isBefore(to);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryRollupService historyRollupService;
+
+    @Value("${history.partition.interval:day}")
+    private String interval;
+
+    @Value("${history.partition.precreate:7}")
+    private int precreate;
+
+    @Value("${history.partition.retention-days:90}")
+    private int retentionDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * Crea las particiones pendientes y elimina las vencidas. Los errores se registran y se
+     * reintenta en la siguiente ejecución.
+     */
+    @Scheduled(cron = "${history.partition.maintenance-cron:0 5 0 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        try {
+            createPartitions(today);
+            dropExpiredPartitions(today);
+        } catch (RuntimeException e) {
+            log.error("Error en el mantenimiento de particiones de {}: {}", TABLE, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crea la partición del periodo de {@code today} y las de los {@code precreate} periodos siguientes.
+     * Los periodos que se solapan con una partición existente (p. ej. mensual frente a diaria) se omiten.
+     *
+     * @return Número de particiones creadas
+     */
+    public int createPartitions(LocalDate today) {
+        Interval granularity = Interval.from(interval);
+        List<Partition> existing = listPartitions();
+        boolean hasDefault = existing.stream().anyMatch(Partition::isDefault);
+
+        int created = 0;
+        LocalDate start = granularity.start(today);
+        for (int i = 0; i <= precreate; i++, start = granularity.next(start)) {
+            LocalDate end = granularity.next(start);
+            LocalDateTime from = start.atStartOfDay();
+            LocalDateTime to = end.atStartOfDay();
+            if (existing.stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                continue;
+            }
+            createPartition(granularity.partitionName(start), from, to, hasDefault);
+            created++;
+        }
+        if (created > 0) {
+            log.info("Creadas {} particiones de {} (intervalo={})", created, TABLE, granularity);
+        }
+        return created;
+    }
+
+    /**
+     * Elimina las particiones cuyo rango termina antes del inicio del día {@code today - retentionDays}
+     * y, con los rollups activos, antes de su marca de agua.
+     * Con {@code retentionDays <= 0} no se elimina nada. La partición por defecto no se elimina;
+     * de ella solo se borran las filas vencidas, que son pocas porque solo recibe filas fuera de rango.
+     *
+     * @return Número de particiones eliminadas
+     */
+    public int dropExpiredPartitions(LocalDate today) {
+        if (retentionDays <= 0) {
+            return 0;
+        }
+        LocalDateTime cutoff = today.minusDays(retentionDays).atStartOfDay();
+        if (historyRollupService.isEnabled()) {
+            LocalDateTime rolledUpTo = historyRollupService.getRolledUpTo();
+            if (rolledUpTo == null) {
+                return 0;
+            }
+            if (rolledUpTo.isBefore(cutoff)) {
+                log.warn("Retención de {} limitada a {}: el historial posterior aún no está agregado", TABLE, rolledUpTo);
+                cutoff = rolledUpTo;
+            }
+        }
+        int dropped = 0;
+        for (Partition partition : listPartitions()) {
+            if (partition.isDefault()) {
+                jdbcTemplate.update("DELETE FROM " + partition.name() + " WHERE timestamp < ?", Timestamp.valueOf(cutoff));
+            } else if (!partition.to().isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                log.info("Eliminada la partición {} [{}, {}) por retención de {} días",
+                        partition.name(), partition.from(), partition.to(), retentionDays);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    List<Partition> listPartitions() {
+        return jdbcTemplate.query(LIST_PARTITIONS_SQL, (rs, rowNum) -> parsePartition(rs.getString(1), rs.getString(2)))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Interpreta el límite devuelto por pg_get_expr, p. ej.
+     * {@code FOR VALUES FROM ('2026-10-18 00:00:00') TO ('2026-10-19 00:00:00')}.
+     *
+     * @return La partición, o null si el límite no es un rango de fechas (p. ej. MINVALUE)
+     */
+    static Partition parsePartition(String name, String bound) {
+        if ("DEFAULT".equals(bound)) {
+            return new Partition(name, null, null);
+        }
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        return new Partition(name, parseTimestamp(matcher.group(1)), parseTimestamp(matcher.group(2)));
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        return LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+
+    private void createPartition(String name, LocalDateTime from, LocalDateTime to, boolean hasDefault) {
+        String create = "CREATE TABLE " + name + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!hasDefault || !defaultPartitionHasRows(from, to)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            // PostgreSQL no permite crear una partición si la de por defecto tiene filas de su rango
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            int moved = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp >= ? AND timestamp < ?", Timestamp.valueOf(from), Timestamp.valueOf(to));
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp >= ? AND timestamp < ?",
+                    Timestamp.valueOf(from), Timestamp.valueOf(to));
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+            log.warn("Movidas {} filas de {} a la nueva partición {}", moved, DEFAULT_PARTITION, name);
+        });
+    }
+
+    private boolean defaultPartitionHasRows(LocalDateTime from, LocalDateTime to) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                        + " WHERE timestamp >= ? AND timestamp < ?)", Boolean.class,
+                Timestamp.valueOf(from), Timestamp.valueOf(to)));
+    }
+}
@@ -0,0 +1,232 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.util.DeflatePayloadCompressor;
+import com.tekton.backend.util.PayloadBuffer;
+import com.tekton.backend.util.PayloadBufferPool;
+import com.tekton.backend.util.PayloadCompressor;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serialización y compresión transparente de los cuerpos de petición y respuesta del historial.
+ *
+ * El aspecto solo captura referencias a los objetos de petición y respuesta
+ * ({@code requestPayload}/{@code responsePayload}); aquí se serializan a UTF-8 en buffers reutilizables,
+ * truncados a {@code maxPayloadBytes}, en los hilos de escritura del historial. Si el payload es el
+ * cuerpo HTTP capturado por {@link com.tekton.backend.filter.HistoryCaptureFilter} ({@code byte[]}),
+ * se usa tal cual, sin pasar por Jackson.
+ *
+ * Los payloads de más de {@code history.compression.threshold-bytes} se guardan comprimidos en
+ * las columnas BYTEA {@code *_compressed}, con el id del algoritmo en el primer byte, y la columna de
+ * texto queda en null; los menores, o los que no se reducen al menos un 25% (el mismo criterio que
+ * pglz), se guardan como texto. En ambos casos se guarda el tamaño original para los listados.
+ * La descompresión solo se hace al leer el detalle o exportar.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HistoryPayloadCodec {
+
+    /**
+     * Marca agregada a los cuerpos truncados.
+     */
+    public static final String TRUNCATED_SUFFIX = "...[truncado]";
+
+    private static final byte[] TRUNCATED_SUFFIX_BYTES = TRUNCATED_SUFFIX.getBytes(StandardCharsets.UTF_8);
+    private static final EncodedPayload NO_PAYLOAD = new EncodedPayload(null, null, null);
+
+    // Buffers de serialización compartidos por los hilos de escritura; los que crecen demasiado no se conservan
+    private static final int BUFFER_POOL_SIZE = 16;
+    private static final int BUFFER_INITIAL_CAPACITY = 4 * 1024;
+    private static final int BUFFER_MAX_RETAINED = 256 * 1024;
+
+    /**
+     * Algoritmos disponibles. Todos se pueden leer; {@code history.compression.algorithm} elige el de escritura.
+     */
+    public enum Algorithm {
+        DEFLATE(new DeflatePayloadCompressor((byte) 1, 6, null)),
+        DEFLATE_JSON_DICTIONARY(new DeflatePayloadCompressor((byte) 2, 6, DeflatePayloadCompressor.JSON_DICTIONARY));
+
+        private final PayloadCompressor compressor;
+
+        Algorithm(PayloadCompressor compressor) {
+            this.compressor = compressor;
+        }
+
+        public PayloadCompressor getCompressor() {
+            return compressor;
+        }
+
+        static PayloadCompressor byId(byte id) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.compressor.id() == id) {
+                    return algorithm.compressor;
+                }
+            }
+            throw new IllegalArgumentException("Algoritmo de compresión desconocido: " + id);
+        }
+    }
+
+    /**
+     * Payload listo para almacenar: texto o bytes comprimidos (uno de los dos es null) y su tamaño original.
+     */
+    public record EncodedPayload(String text, byte[] compressed, Integer size) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final PayloadBufferPool buffers =
+            new PayloadBufferPool(BUFFER_POOL_SIZE, BUFFER_INITIAL_CAPACITY, BUFFER_MAX_RETAINED);
+
+    @Value("${history.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${history.compression.threshold-bytes:64}")
+    private int thresholdBytes;
+
+    @Value("${history.compression.algorithm:DEFLATE_JSON_DICTIONARY}")
+    private Algorithm algorithm = Algorithm.DEFLATE_JSON_DICTIONARY;
+
+    @PostConstruct
+    void init() {
+        log.info("Compresión de payloads del historial: {} (umbral={} bytes, algoritmo={})",
+                enabled ? "activa" : "inactiva", thresholdBytes, algorithm);
+    }
+
+    /**
+     * Prepara un payload para almacenarlo.
+     *
+     * @param body Payload original (puede ser null)
+     * @return Texto o bytes comprimidos, y tamaño original en bytes
+     */
+    public EncodedPayload encode(String body) {
+        if (body == null) {
+            return NO_PAYLOAD;
+        }
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+        return encode(utf8, utf8.length, body);
+    }
+
+    private EncodedPayload encode(byte[] utf8, int length, String text) {
+        if (enabled && length > thresholdBytes) {
+            PayloadCompressor compressor = algorithm.getCompressor();
+            byte[] compressed = compressor.compress(utf8, 0, length);
+            if (compressed.length + 1 <= length - length / 4) {
+                byte[] stored = new byte[compressed.length + 1];
+                stored[0] = compressor.id();
+                System.arraycopy(compressed, 0, stored, 1, compressed.length);
+                return new EncodedPayload(null, stored, length);
+            }
+        }
+        return new EncodedPayload(text != null ? text : new String(utf8, 0, length, StandardCharsets.UTF_8), null, length);
+    }
+
+    /**
+     * Serializa y comprime los payloads del registro antes de persistirlo. No hace nada si ya se procesó.
+     */
+    public void compress(ApiCallHistory history) {
+        if (history.getRequestBodySize() == null) {
+            EncodedPayload request = history.getRequestPayload() != null
+                    ? serializeAndEncode(history.getRequestPayload(), history.getMaxPayloadBytes())
+                    : encode(history.getRequestBody());
+            history.setRequestPayload(null);
+            history.setRequestBody(request.text());
+            history.setRequestBodyCompressed(request.compressed());
+            history.setRequestBodySize(request.size());
+        }
+        if (history.getResponseBodySize() == null) {
+            EncodedPayload response = history.getResponsePayload() != null
+                    ? serializeAndEncode(history.getResponsePayload(), history.getMaxPayloadBytes())
+                    : encode(history.getResponseBody());
+            history.setResponsePayload(null);
+            history.setResponseBody(response.text());
+            history.setResponseBodyCompressed(response.compressed());
+            history.setResponseBodySize(response.size());
+        }
+    }
+
+    /**
+     * Serializa a texto los objetos capturados, sin comprimir. Lo usan los caminos que guardan el
+     * registro completo como JSON antes de insertarlo (spool y spill a disco).
+     */
+    public void materialize(ApiCallHistory history) {
+        if (history.getRequestPayload() != null) {
+            history.setRequestBody(serialize(history.getRequestPayload(), history.getMaxPayloadBytes()));
+            history.setRequestPayload(null);
+        }
+        if (history.getResponsePayload() != null) {
+            history.setResponseBody(serialize(history.getResponsePayload(), history.getMaxPayloadBytes()));
+            history.setResponsePayload(null);
+        }
+    }
+
+    /**
+     * Serializa un objeto a JSON, truncado a {@code maxBytes} bytes UTF-8 con {@link #TRUNCATED_SUFFIX}.
+     * Un {@code byte[]} se toma como JSON ya serializado y truncado (el cuerpo HTTP capturado).
+     *
+     * @param maxBytes Máximo de bytes; 0 sin límite
+     * @return JSON, o null si la serialización falla
+     */
+    public String serialize(Object payload, int maxBytes) {
+        if (payload instanceof byte[] utf8) {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+        PayloadBuffer buffer = buffers.acquire();
+        try {
+            return write(payload, maxBytes, buffer)
+                    ? new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8) : null;
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    private EncodedPayload serializeAndEncode(Object payload, int maxBytes) {
+        if (payload instanceof byte[] utf8) {
+            return encode(utf8, utf8.length, null);
+        }
+        PayloadBuffer buffer = buffers.acquire();
+        try {
+            return write(payload, maxBytes, buffer) ? encode(buffer.array(), buffer.size(), null) : NO_PAYLOAD;
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    private boolean write(Object payload, int maxBytes, PayloadBuffer buffer) {
+        buffer.reset(maxBytes);
+        try {
+            objectMapper.writeValue(buffer, payload);
+        } catch (IOException e) {
+            if (!buffer.isTruncated()) {
+                log.warn("Error al serializar payload del historial: {}", e.getMessage());
+                return false;
+            }
+        }
+        if (buffer.isTruncated()) {
+            buffer.finishTruncated(TRUNCATED_SUFFIX_BYTES);
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene el payload original a partir de las columnas almacenadas.
+     *
+     * @param text Columna de texto
+     * @param compressed Columna comprimida
+     * @return Payload original, o null si ambas son null
+     */
+    public String decode(String text, byte[] compressed) {
+        if (compressed == null || compressed.length == 0) {
+            return text;
+        }
+        byte[] utf8 = Algorithm.byId(compressed[0]).decompress(compressed, 1, compressed.length - 1);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,336 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.dto.HistoryRollupResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrega el historial crudo en tablas de rollup por minuto y por hora, por endpoint, método y status code:
+ * número de llamadas, errores (status >= 400 o con mensaje de error), suma/mínimo/máximo de
+ * execution_time_ms e histograma de latencia.
+ *
+ * Cada granularidad avanza una marca de agua (history_rollup_checkpoint) en la misma transacción que
+ * inserta los agregados, así que cada intervalo se agrega exactamente una vez. Solo se agregan intervalos
+ * cerrados hace más de {@code history.rollup.lag-seconds}, para dar tiempo a las escrituras asíncronas;
+ * las filas que llegan más tarde (p. ej. un spool reproducido tras una caída) no se reflejan en los rollups.
+ * Las consultas de tendencias leen estas tablas, sin recorrer el historial crudo ni sus payloads TEXT.
+ *
+ * Con el gestor de particiones desactivado ({@code history.partition.enabled=false}), este job también aplica
+ * la retención del historial crudo ({@code history.partition.retention-days}) con DELETE por lotes, solo sobre
+ * lo ya agregado; con el gestor activo la aplica él, eliminando particiones completas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryRollupService {
+
+    /**
+     * Límites superiores (exclusivos) de los rangos del histograma de latencia, en ms.
+     * El histograma tiene un rango más, sin límite superior.
+     */
+    public static final long[] LATENCY_BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /**
+     * Máximo de filas devueltas por una consulta de rollups.
+     */
+    public static final int MAX_ROLLUP_ROWS = 10_000;
+
+    /**
+     * Filas del historial crudo eliminadas por sentencia en {@link #purgeRawHistory}.
+     */
+    static final int RAW_PURGE_BATCH = 5_000;
+
+    private static final String PURGE_RAW_SQL = "DELETE FROM api_call_history WHERE timestamp < ? AND id IN "
+            + "(SELECT id FROM api_call_history WHERE timestamp < ? LIMIT " + RAW_PURGE_BATCH + ")";
+
+    private static final String COLUMNS = "bucket_start, endpoint, method, status_code, call_count, error_count, "
+            + "total_execution_ms, min_execution_ms, max_execution_ms, latency_histogram";
+
+    /**
+     * Granularidad de los rollups y su tabla.
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES, "minute", "api_call_history_rollup_minute"),
+        HOUR(ChronoUnit.HOURS, "hour", "api_call_history_rollup_hour");
+
+        private final ChronoUnit unit;
+        private final String truncField;
+        private final String table;
+
+        Granularity(ChronoUnit unit, String truncField, String table) {
+            this.unit = unit;
+            this.truncField = truncField;
+            this.table = table;
+        }
+
+        LocalDateTime truncate(LocalDateTime timestamp) {
+            return timestamp.truncatedTo(unit);
+        }
+
+        String table() {
+            return table;
+        }
+
+        String rollupSql() {
+            return "INSERT INTO " + table + " (" + COLUMNS + ") "
+                    + "SELECT date_trunc('" + truncField + "', timestamp), "
+                    + "endpoint, method, status_code, count(*), "
+                    + "count(*) FILTER (WHERE status_code >= 400 OR error_message IS NOT NULL), "
+                    + "COALESCE(sum(execution_time_ms), 0), min(execution_time_ms), max(execution_time_ms), "
+                    + histogramSql() + " "
+                    + "FROM api_call_history WHERE timestamp >= ? AND timestamp < ? "
+                    + "GROUP BY 1, 2, 3, 4";
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${history.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${history.rollup.lag-seconds:120}")
+    private long lagSeconds;
+
+    @Value("${history.rollup.max-window-hours:6}")
+    private long maxWindowHours;
+
+    @Value("${history.rollup.minute-retention-days:14}")
+    private int minuteRetentionDays;
+
+    @Value("${history.rollup.hour-retention-days:730}")
+    private int hourRetentionDays;
+
+    @Value("${history.partition.enabled:true}")
+    private boolean partitionManaged = true;
+
+    @Value("${history.partition.retention-days:90}")
+    private int rawRetentionDays;
+
+    /**
+     * Agrega los intervalos pendientes de ambas granularidades, elimina los rollups vencidos y, sin
+     * gestor de particiones, el historial crudo vencido.
+     */
+    @Scheduled(fixedDelayString = "${history.rollup.interval-ms:60000}",
+            initialDelayString = "${history.rollup.initial-delay-ms:30000}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (enabled) {
+                for (Granularity granularity : Granularity.values()) {
+                    rollUp(granularity, now);
+                }
+                purgeRollups(now.toLocalDate());
+            }
+            if (!partitionManaged) {
+                purgeRawHistory(now.toLocalDate());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error agregando el historial: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Agrega el historial entre la marca de agua y {@code now - lag}, en ventanas de a lo sumo
+     * {@code history.rollup.max-window-hours}, cada una en su propia transacción.
+     *
+     * @return Filas de rollup insertadas
+     */
+    public int rollUp(Granularity granularity, LocalDateTime now) {
+        LocalDateTime upTo = granularity.truncate(now.minusSeconds(lagSeconds));
+        int inserted = 0;
+        Integer rows;
+        while ((rows = transactionTemplate.execute(status -> rollUpWindow(granularity, upTo))) != null) {
+            inserted += rows;
+        }
+        if (inserted > 0) {
+            log.debug("Rollup {}: {} filas hasta {}", granularity, inserted, upTo);
+        }
+        return inserted;
+    }
+
+    /**
+     * @return Filas insertadas, o null si no quedan intervalos pendientes
+     */
+    private Integer rollUpWindow(Granularity granularity, LocalDateTime upTo) {
+        LocalDateTime from = jdbcTemplate.queryForObject(
+                "SELECT rolled_up_to FROM history_rollup_checkpoint WHERE granularity = ? FOR UPDATE",
+                LocalDateTime.class, granularity.name());
+        if (from == null) {
+            // Primera ejecución: se empieza por el registro más antiguo del historial
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT min(timestamp) FROM api_call_history",
+                    LocalDateTime.class);
+            from = oldest != null && oldest.isBefore(upTo) ? granularity.truncate(oldest) : upTo;
+            updateCheckpoint(granularity, from);
+        }
+        if (!from.isBefore(upTo)) {
+            return null;
+        }
+        LocalDateTime to = from.plusHours(maxWindowHours);
+        if (to.isAfter(upTo)) {
+            to = upTo;
+        }
+        int rows = jdbcTemplate.update(granularity.rollupSql(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+        updateCheckpoint(granularity, to);
+        return rows;
+    }
+
+    private void updateCheckpoint(Granularity granularity, LocalDateTime rolledUpTo) {
+        jdbcTemplate.update("UPDATE history_rollup_checkpoint SET rolled_up_to = ? WHERE granularity = ?",
+                Timestamp.valueOf(rolledUpTo), granularity.name());
+    }
+
+    /**
+     * Elimina los rollups más antiguos que su retención. Son tablas pequeñas, por lo que basta un DELETE.
+     */
+    public void purgeRollups(LocalDate today) {
+        purge(Granularity.MINUTE, minuteRetentionDays, today);
+        purge(Granularity.HOUR, hourRetentionDays, today);
+    }
+
+    private void purge(Granularity granularity, int retentionDays, LocalDate today) {
+        if (retentionDays > 0) {
+            jdbcTemplate.update("DELETE FROM " + granularity.table() + " WHERE bucket_start < ?",
+                    Timestamp.valueOf(today.minusDays(retentionDays).atStartOfDay()));
+        }
+    }
+
+    /**
+     * Elimina el historial crudo anterior al inicio del día {@code today - retention-days} en lotes de
+     * {@link #RAW_PURGE_BATCH} filas, cada uno en su propia sentencia para no retener bloqueos. Con los rollups
+     * activos no pasa de {@link #getRolledUpTo()}. Con {@code retention-days <= 0} no se elimina nada.
+     *
+     * @return Filas eliminadas
+     */
+    public long purgeRawHistory(LocalDate today) {
+        if (rawRetentionDays <= 0) {
+            return 0;
+        }
+        LocalDateTime cutoff = today.minusDays(rawRetentionDays).atStartOfDay();
+        if (enabled) {
+            LocalDateTime rolledUpTo = getRolledUpTo();
+            if (rolledUpTo == null) {
+                return 0;
+            }
+            if (rolledUpTo.isBefore(cutoff)) {
+                cutoff = rolledUpTo;
+            }
+        }
+        Timestamp before = Timestamp.valueOf(cutoff);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_RAW_SQL, before, before);
+            purged += deleted;
+        } while (deleted >= RAW_PURGE_BATCH);
+        if (purged > 0) {
+            log.info("Eliminadas {} filas de api_call_history anteriores a {} por retención", purged, cutoff);
+        }
+        return purged;
+    }
+
+    /**
+     * Instante hasta el cual el historial crudo está agregado en todas las granularidades. Las filas
+     * anteriores pueden eliminarse sin perder información en los rollups.
+     *
+     * @return La marca de agua más antigua, o null si el rollup está desactivado o aún no se ejecutó
+     */
+    public LocalDateTime getRolledUpTo() {
+        if (!enabled) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject("SELECT CASE WHEN bool_and(rolled_up_to IS NOT NULL) "
+                + "THEN min(rolled_up_to) END FROM history_rollup_checkpoint", LocalDateTime.class);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consulta los rollups de una granularidad en el rango [startDate, endDate] (por defecto, los últimos 7 días).
+     *
+     * @param granularity Granularidad
+     * @param endpoint Filtro por endpoint (opcional)
+     * @param startDate Fecha de inicio (opcional)
+     * @param endDate Fecha de fin (opcional)
+     * @return Agregados ordenados por intervalo, como máximo {@link #MAX_ROLLUP_ROWS}
+     */
+    public List<HistoryRollupResponse> getRollups(Granularity granularity, String endpoint,
+                                                  LocalDate startDate, LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(6);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(granularity.table())
+                .append(" WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(start.atStartOfDay()));
+        args.add(Timestamp.valueOf(end.plusDays(1).atStartOfDay()));
+        if (endpoint != null && !endpoint.isEmpty()) {
+            sql.append(" AND endpoint = ?");
+            args.add(endpoint);
+        }
+        sql.append(" ORDER BY bucket_start, endpoint, method, status_code LIMIT ").append(MAX_ROLLUP_ROWS);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toResponse(rs), args.toArray());
+    }
+
+    private static HistoryRollupResponse toResponse(ResultSet rs) throws SQLException {
+        long callCount = rs.getLong("call_count");
+        long total = rs.getLong("total_execution_ms");
+        return HistoryRollupResponse.builder()
+                .bucketStart(rs.getTimestamp("bucket_start").toLocalDateTime())
+                .endpoint(rs.getString("endpoint"))
+                .method(rs.getString("method"))
+                .statusCode(rs.getInt("status_code"))
+                .callCount(callCount)
+                .errorCount(rs.getLong("error_count"))
+                .totalExecutionTimeMs(total)
+                .avgExecutionTimeMs(callCount > 0 ? (double) total / callCount : null)
+                .minExecutionTimeMs(rs.getObject("min_execution_ms", Long.class))
+                .maxExecutionTimeMs(rs.getObject("max_execution_ms", Long.class))
+                .latencyHistogram(histogram(rs.getArray("latency_histogram")))
+                .build();
+    }
+
+    private static Map<String, Long> histogram(Array array) throws SQLException {
+        Long[] counts = (Long[]) array.getArray();
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            long lower = i == 0 ? 0 : LATENCY_BUCKETS_MS[i - 1];
+            histogram.put(i < LATENCY_BUCKETS_MS.length ? lower + "-" + LATENCY_BUCKETS_MS[i] : lower + "+", counts[i]);
+        }
+        return histogram;
+    }
+
+    /**
+     * Expresión SQL del histograma: un contador por rango de {@link #LATENCY_BUCKETS_MS}.
+     */
+    static String histogramSql() {
+        StringBuilder sql = new StringBuilder("ARRAY[count(*) FILTER (WHERE execution_time_ms < ")
+                .append(LATENCY_BUCKETS_MS[0]).append(")");
+        for (int i = 1; i < LATENCY_BUCKETS_MS.length; i++) {
+            sql.append(", count(*) FILTER (WHERE execution_time_ms >= ").append(LATENCY_BUCKETS_MS[i - 1])
+                    .append(" AND execution_time_ms < ").append(LATENCY_BUCKETS_MS[i]).append(")");
+        }
+        return sql.append(", count(*) FILTER (WHERE execution_time_ms >= ")
+                .append(LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1]).append(")]").toString();
+    }
+}
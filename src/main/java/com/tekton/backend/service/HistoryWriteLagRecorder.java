@@ -0,0 +1,51 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.entity.ApiCallHistory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mide el retraso de escritura del historial ({@code history.write.lag}): el tiempo desde la
+ * petición (timestamp del registro) hasta que su fila queda confirmada en la base de datos.
+ * Incluye la espera en la cola del executor, el lote o el spool.
+ */
+@Component
+public class HistoryWriteLagRecorder {
+
+    private final Timer writeLag;
+
+    public HistoryWriteLagRecorder(MeterRegistry meterRegistry) {
+        this.writeLag = Timer.builder("history.write.lag")
+                .description("Tiempo desde la petición hasta el commit de su registro de historial")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra el retraso de un registro ya confirmado.
+     */
+    public void committed(ApiCallHistory history) {
+        record(history, LocalDateTime.now());
+    }
+
+    /**
+     * Registra el retraso de un lote ya confirmado.
+     */
+    public void committed(List<ApiCallHistory> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ApiCallHistory history : batch) {
+            record(history, now);
+        }
+    }
+
+    private void record(ApiCallHistory history, LocalDateTime now) {
+        if (history.getTimestamp() != null) {
+            writeLag.record(Duration.between(history.getTimestamp(), now));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.dto.LatencyStatsResponse;
+import com.tekton.backend.util.StripedLatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Estadísticas de latencia en memoria por endpoint, en ventanas deslizantes.
+ *
+ * Cada endpoint tiene un anillo de intervalos de {@code history.stats.slot-seconds}; cada intervalo
+ * guarda un {@link StripedLatencyHistogram} y contadores de errores y de latencia total. Al empezar
+ * un intervalo nuevo se reemplaza el más antiguo con un compareAndSet, sin bloqueos. Las ventanas
+ * ({@code history.stats.windows-seconds}) suman los intervalos que cubren, por lo que las consultas
+ * no tocan la base de datos. Las escrituras que coinciden con la rotación de un intervalo pueden
+ * perderse: las cifras son aproximadas.
+ */
+@Slf4j
+@Service
+public class LatencyStatsService {
+
+    /**
+     * Clave que agrupa los endpoints que superan {@code history.stats.max-endpoints}.
+     */
+    static final String OTHER_ENDPOINT = "OTHER";
+
+    @Value("${history.stats.slot-seconds:10}")
+    private int slotSeconds;
+
+    @Value("${history.stats.windows-seconds:60,300}")
+    private int[] windowsSeconds;
+
+    @Value("${history.stats.max-endpoints:50}")
+    private int maxEndpoints;
+
+    @Value("${history.stats.stripes:4}")
+    private int stripes;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private long slotMillis;
+    private int slots;
+    private final Map<String, SlidingWindow> endpoints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        slotMillis = slotSeconds * 1000L;
+        int longestWindow = 0;
+        for (int window : windowsSeconds) {
+            longestWindow = Math.max(longestWindow, window);
+        }
+        // Un intervalo más para el que está en curso
+        slots = (int) Math.ceil(longestWindow * 1000.0 / slotMillis) + 1;
+    }
+
+    /**
+     * Registra una llamada.
+     *
+     * @param endpoint Endpoint, p. ej. "POST /api/calculate"
+     * @param micros Latencia en microsegundos
+     * @param error true si la llamada terminó con error
+     */
+    public void record(String endpoint, long micros, boolean error) {
+        SlidingWindow window = endpoints.get(endpoint);
+        if (window == null) {
+            window = endpoints.size() < maxEndpoints
+                    ? endpoints.computeIfAbsent(endpoint, key -> new SlidingWindow(slots))
+                    : endpoints.computeIfAbsent(OTHER_ENDPOINT, key -> new SlidingWindow(slots));
+        }
+        window.current(clock.getAsLong() / slotMillis).record(micros, error);
+    }
+
+    /**
+     * @param endpoint Filtro por endpoint (opcional)
+     * @return Estadísticas por endpoint y ventana, ordenadas por endpoint y duración de la ventana
+     */
+    public List<LatencyStatsResponse> getStats(String endpoint) {
+        long now = clock.getAsLong();
+        List<LatencyStatsResponse> stats = new ArrayList<>();
+        endpoints.forEach((key, window) -> {
+            if (endpoint == null || endpoint.isEmpty() || endpoint.equals(key)) {
+                for (int windowSeconds : windowsSeconds) {
+                    stats.add(window.stats(key, windowSeconds, now));
+                }
+            }
+        });
+        stats.sort(Comparator.comparing(LatencyStatsResponse::getEndpoint)
+                .thenComparingInt(LatencyStatsResponse::getWindowSeconds));
+        return stats;
+    }
+
+    private final class SlidingWindow {
+
+        private final AtomicReferenceArray<Slot> ring;
+
+        SlidingWindow(int slots) {
+            this.ring = new AtomicReferenceArray<>(slots);
+        }
+
+        Slot current(long epoch) {
+            int index = (int) (epoch % ring.length());
+            Slot slot = ring.get(index);
+            while (slot == null || slot.epoch < epoch) {
+                Slot fresh = new Slot(epoch, stripes);
+                if (ring.compareAndSet(index, slot, fresh)) {
+                    return fresh;
+                }
+                slot = ring.get(index);
+            }
+            return slot;
+        }
+
+        LatencyStatsResponse stats(String endpoint, int windowSeconds, long now) {
+            long currentEpoch = now / slotMillis;
+            long windowSlots = Math.max(1, windowSeconds * 1000L / slotMillis);
+            long[] counts = new long[StripedLatencyHistogram.BUCKETS];
+            long errors = 0;
+            long totalMicros = 0;
+            for (int i = 0; i < ring.length(); i++) {
+                Slot slot = ring.get(i);
+                if (slot != null && slot.epoch <= currentEpoch && slot.epoch > currentEpoch - windowSlots) {
+                    slot.histogram.addTo(counts);
+                    errors += slot.errors.sum();
+                    totalMicros += slot.totalMicros.sum();
+                }
+            }
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+            // Intervalos completos más la parte transcurrida del intervalo en curso
+            double coveredSeconds = ((windowSlots - 1) * slotMillis + (now - currentEpoch * slotMillis) + 1) / 1000.0;
+
+            return LatencyStatsResponse.builder()
+                    .endpoint(endpoint)
+                    .windowSeconds(windowSeconds)
+                    .count(count)
+                    .throughputPerSecond(count / coveredSeconds)
+                    .errorRate(count > 0 ? (double) errors / count : 0)
+                    .avgMs(count > 0 ? totalMicros / 1000.0 / count : 0)
+                    .p50Ms(percentileMs(counts, count, 50))
+                    .p90Ms(percentileMs(counts, count, 90))
+                    .p99Ms(percentileMs(counts, count, 99))
+                    .p999Ms(percentileMs(counts, count, 99.9))
+                    .build();
+        }
+
+        private static double percentileMs(long[] counts, long total, double percentile) {
+            return StripedLatencyHistogram.percentile(counts, total, percentile) / 1000.0;
+        }
+    }
+
+    private static final class Slot {
+
+        final long epoch;
+        final StripedLatencyHistogram histogram;
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+
+        Slot(long epoch, int stripes) {
+            this.epoch = epoch;
+            this.histogram = new StripedLatencyHistogram(stripes);
+        }
+
+        void record(long micros, boolean error) {
+            histogram.record(micros);
+            totalMicros.add(Math.max(0, micros));
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -3,61 +3,205 @@ package com.tekton.backend.service;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.tekton.backend.config.CacheConfig;
 import com.tekton.backend.exception.PercentageNotFoundException;
+import com.tekton.backend.util.CircuitBreaker;
+import com.tekton.backend.util.ServerTiming;
+import com.tekton.backend.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Servicio para gestionar el caché del porcentaje obtenido del servicio externo.
  * Implementa la estrategia Cache-Aside pattern con fallback automático.
+ *
+ * Soporta dos modos (propiedad {@code percentage.cache.mode}):
+ * <ul>
+ *   <li>{@code sync}: cada petición consulta el servicio externo y usa el caché solo como fallback.</li>
+ *   <li>{@code refresh-ahead}: las peticiones leen directamente el caché en memoria y una tarea en
+ *       segundo plano refresca el valor antes de que expire (stale-while-revalidate).</li>
+ * </ul>
+ *
+ * Las llamadas concurrentes al servicio externo se agrupan en una sola petición (single-flight).
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PercentageCacheService {
 
+    public static final String MODE_SYNC = "sync";
+    public static final String MODE_REFRESH_AHEAD = "refresh-ahead";
+
     private final Cache<String, Double> percentageCache;
     private final ExternalPercentageService externalPercentageService;
+    private final TaskScheduler percentageRefreshScheduler;
+    private final SingleFlight<String, Double> upstreamFetches = new SingleFlight<>();
+
+    // Origen del porcentaje entregado por getPercentage()
+    private final LongAdder upstreamHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheFallbacks = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+
+    @Value("${percentage.cache.mode:sync}")
+    private String mode;
+
+    @Value("${percentage.cache.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    @Value("${percentage.cache.max-staleness-ms:1800000}")
+    private long maxStalenessMs;
+
+    @Value("${percentage.cache.refresh-jitter-ms:5000}")
+    private long refreshJitterMs;
+
+    /**
+     * Instante (System.nanoTime) del último refresco exitoso; 0 si nunca se ha refrescado.
+     */
+    private volatile long lastRefreshNanos;
+
+    /**
+     * Inicia el ciclo de refresco en segundo plano cuando el modo refresh-ahead está activo.
+     * El primer refresco se ejecuta de inmediato para calentar el caché.
+     */
+    @PostConstruct
+    void startRefreshAhead() {
+        if (!isRefreshAhead()) {
+            return;
+        }
+        if (refreshIntervalMs >= maxStalenessMs) {
+            log.warn("percentage.cache.refresh-interval-ms ({}) debería ser menor que max-staleness-ms ({})",
+                    refreshIntervalMs, maxStalenessMs);
+        }
+        log.info("Modo refresh-ahead activo: intervalo={}ms, jitter={}ms, max-staleness={}ms",
+                refreshIntervalMs, refreshJitterMs, maxStalenessMs);
+        percentageRefreshScheduler.schedule(this::refresh, Instant.now());
+    }
 
     /**
      * Obtiene el porcentaje: primero intenta desde el servicio externo,
      * si falla usa el caché, y si no hay caché lanza excepción.
-     * 
+     *
+     * En modo refresh-ahead el valor se sirve desde memoria mientras no supere
+     * la antigüedad máxima configurada, sin llamar al servicio externo.
+     *
      * @return Porcentaje obtenido
      * @throws PercentageNotFoundException si no hay valor disponible
      */
     public Double getPercentage() {
+        long start = ServerTiming.start();
+        if (isRefreshAhead()) {
+            Double cachedPercentage = percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY);
+            if (cachedPercentage != null && !isBeyondMaxStaleness()) {
+                cacheHits.increment();
+                ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "cache");
+                return cachedPercentage;
+            }
+            log.debug("Caché frío o demasiado antiguo en modo refresh-ahead, consultando servicio externo");
+        }
+
         try {
             // Intentar obtener del servicio externo
-            Double percentage = externalPercentageService.getPercentage();
-            
+            Double percentage = fetchFromExternalService();
+
             // Si es exitoso, actualizar caché
             if (percentage != null) {
-                percentageCache.put(CacheConfig.PERCENTAGE_CACHE_KEY, percentage);
+                storeInCache(percentage);
                 log.debug("Porcentaje obtenido del servicio externo y almacenado en caché: {}", percentage);
+                upstreamHits.increment();
+                ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "upstream");
                 return percentage;
             }
         } catch (Exception e) {
-            log.warn("Error al obtener porcentaje del servicio externo: {}", e.getMessage());
+            logUpstreamFailure(e);
         }
 
-        // Si falla, intentar desde caché
+        return fallbackToCache(start);
+    }
+
+    /**
+     * Variante sin bloqueo de {@link #getPercentage()}, con la misma lógica de caché y fallback.
+     * La consulta al servicio externo se comparte con las demás en curso, bloqueantes o no.
+     *
+     * @return Future con el porcentaje; falla con {@link PercentageNotFoundException} si no hay valor disponible
+     */
+    public CompletableFuture<Double> getPercentageAsync() {
+        long start = ServerTiming.start();
+        if (isRefreshAhead()) {
+            Double cachedPercentage = percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY);
+            if (cachedPercentage != null && !isBeyondMaxStaleness()) {
+                cacheHits.increment();
+                ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "cache");
+                return CompletableFuture.completedFuture(cachedPercentage);
+            }
+            log.debug("Caché frío o demasiado antiguo en modo refresh-ahead, consultando servicio externo");
+        }
+
+        return upstreamFetches.executeAsync(CacheConfig.PERCENTAGE_CACHE_KEY, externalPercentageService::getPercentageAsync)
+                .handle((percentage, error) -> {
+                    if (error == null && percentage != null) {
+                        storeInCache(percentage);
+                        log.debug("Porcentaje obtenido del servicio externo y almacenado en caché: {}", percentage);
+                        upstreamHits.increment();
+                        return percentage;
+                    }
+                    if (error != null) {
+                        logUpstreamFailure(error);
+                    }
+                    return fallbackToCache(start);
+                });
+    }
+
+    private void logUpstreamFailure(Throwable error) {
+        if (error instanceof CircuitBreaker.CallNotPermittedException) {
+            // Circuito abierto: se pasa al caché sin esperar al servicio externo
+            log.debug(error.getMessage());
+        } else {
+            log.warn("Error al obtener porcentaje del servicio externo: {}", error.getMessage());
+        }
+    }
+
+    /**
+     * @return Último porcentaje en caché, si no supera {@code max-staleness-ms}
+     * @throws PercentageNotFoundException si no hay valor en caché o es demasiado antiguo
+     */
+    private Double fallbackToCache(long start) {
         Double cachedPercentage = percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY);
-        
+
+        if (cachedPercentage != null && isBeyondMaxStaleness()) {
+            log.error("El porcentaje en caché supera la antigüedad máxima ({}ms) y el servicio externo no está disponible",
+                    maxStalenessMs);
+            notFound.increment();
+            ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "not_found");
+            throw new PercentageNotFoundException("No se pudo obtener el porcentaje. El servicio externo no está disponible y el valor en caché es demasiado antiguo.");
+        }
+
         if (cachedPercentage != null) {
             log.info("Usando porcentaje desde caché: {}", cachedPercentage);
+            cacheFallbacks.increment();
+            ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "fallback");
             return cachedPercentage;
         }
 
         // Si no hay caché, lanzar excepción
         log.error("No se pudo obtener el porcentaje ni desde el servicio externo ni desde el caché");
+        notFound.increment();
+        ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "not_found");
         throw new PercentageNotFoundException("No se pudo obtener el porcentaje. El servicio externo no está disponible y no hay valor en caché.");
     }
 
     /**
      * Obtiene el porcentaje desde el caché sin intentar el servicio externo.
      * Útil para operaciones que requieren solo el valor en caché.
-     * 
+     *
      * @return Porcentaje desde caché o null si no existe
      */
     public Double getPercentageFromCache() {
@@ -66,10 +210,99 @@ public class PercentageCacheService {
 
     /**
      * Verifica si existe un valor en caché.
-     * 
+     *
      * @return true si hay valor en caché, false en caso contrario
      */
     public boolean hasCachedValue() {
         return percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY) != null;
     }
+
+    /**
+     * @return Número de llamadas reales realizadas al servicio externo
+     */
+    public long getUpstreamFetchCount() {
+        return upstreamFetches.getExecutionCount();
+    }
+
+    /**
+     * @return Número de llamadas que se unieron a una consulta al servicio externo ya en curso
+     */
+    public long getCoalescedFetchCount() {
+        return upstreamFetches.getCoalescedCount();
+    }
+
+    /**
+     * @return Porcentajes entregados desde el servicio externo
+     */
+    public long getUpstreamHitCount() {
+        return upstreamHits.sum();
+    }
+
+    /**
+     * @return Porcentajes servidos desde memoria en modo refresh-ahead, sin consultar el servicio externo
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return Porcentajes servidos desde el caché porque el servicio externo falló o el circuito estaba abierto
+     */
+    public long getCacheFallbackCount() {
+        return cacheFallbacks.sum();
+    }
+
+    /**
+     * @return Llamadas que terminaron en {@link PercentageNotFoundException}
+     */
+    public long getNotFoundCount() {
+        return notFound.sum();
+    }
+
+    /**
+     * Tarea de refresco en segundo plano. Si el servicio externo falla se conserva
+     * el valor anterior (stale) y se reprograma el siguiente intento.
+     */
+    void refresh() {
+        try {
+            Double percentage = fetchFromExternalService();
+            if (percentage != null) {
+                storeInCache(percentage);
+                log.debug("Porcentaje refrescado en segundo plano: {}", percentage);
+            }
+        } catch (CircuitBreaker.CallNotPermittedException e) {
+            log.debug("Refresco omitido: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Error al refrescar porcentaje en segundo plano, se mantiene el valor en caché: {}", e.getMessage());
+        } finally {
+            scheduleNextRefresh();
+        }
+    }
+
+    private void scheduleNextRefresh() {
+        long jitter = refreshJitterMs > 0 ? ThreadLocalRandom.current().nextLong(refreshJitterMs + 1) : 0;
+        percentageRefreshScheduler.schedule(this::refresh, Instant.now().plusMillis(refreshIntervalMs + jitter));
+    }
+
+    /**
+     * Consulta el servicio externo compartiendo la petición en curso con otros hilos concurrentes.
+     */
+    private Double fetchFromExternalService() {
+        return upstreamFetches.execute(CacheConfig.PERCENTAGE_CACHE_KEY, externalPercentageService::getPercentage);
+    }
+
+    private void storeInCache(Double percentage) {
+        percentageCache.put(CacheConfig.PERCENTAGE_CACHE_KEY, percentage);
+        lastRefreshNanos = System.nanoTime();
+    }
+
+    private boolean isBeyondMaxStaleness() {
+        long refreshedAt = lastRefreshNanos;
+        return refreshedAt == 0
+                || System.nanoTime() - refreshedAt > TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    private boolean isRefreshAhead() {
+        return MODE_REFRESH_AHEAD.equalsIgnoreCase(mode);
+    }
 }
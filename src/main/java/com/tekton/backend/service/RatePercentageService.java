@@ -0,0 +1,144 @@
+package com.tekton.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.tekton.backend.config.CacheConfig;
+import com.tekton.backend.exception.PercentageNotFoundException;
+import com.tekton.backend.util.ServerTiming;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Porcentajes por clave (tenant o producto), para peticiones con {@code rateKey}.
+ *
+ * Se leen del caché de carga {@link CacheConfig#percentageRatesCache}: una clave ausente se carga del
+ * servicio externo, varias claves ausentes se cargan juntas y cada clave se refresca en segundo plano
+ * por separado. Una clave que el servicio externo no conoce (en caché como {@link CacheConfig#UNKNOWN_RATE}),
+ * o que no se pudo cargar y no tiene un valor anterior, termina en {@link PercentageNotFoundException}.
+ */
+@Slf4j
+@Service
+public class RatePercentageService {
+
+    private final AsyncLoadingCache<String, Double> percentageRatesCache;
+
+    @Value("${percentage.rates.preload-keys:}")
+    private List<String> preloadKeys = List.of();
+
+    public RatePercentageService(
+            @Qualifier(CacheConfig.PERCENTAGE_RATES_CACHE_NAME) AsyncLoadingCache<String, Double> percentageRatesCache) {
+        this.percentageRatesCache = percentageRatesCache;
+    }
+
+    /**
+     * Carga en segundo plano las claves de {@code percentage.rates.preload-keys}, en una sola llamada
+     * por grupo de claves. Un fallo no impide el arranque: las claves se cargan en su primera lectura.
+     */
+    @PostConstruct
+    void preload() {
+        if (preloadKeys.isEmpty()) {
+            return;
+        }
+        percentageRatesCache.getAll(preloadKeys).whenComplete((percentages, error) -> {
+            if (error != null) {
+                log.warn("No se pudieron precargar los porcentajes por clave: {}", unwrap(error).getMessage());
+            } else {
+                log.info("Precargados {} de {} porcentajes por clave",
+                        percentages.values().stream().filter(RatePercentageService::isKnown).count(), preloadKeys.size());
+            }
+        });
+    }
+
+    /**
+     * @param key Clave del porcentaje
+     * @return Porcentaje de la clave
+     * @throws PercentageNotFoundException si la clave no existe o no se pudo obtener
+     */
+    public Double getPercentage(String key) {
+        long start = ServerTiming.start();
+        try {
+            return require(key, percentageRatesCache.get(key).join());
+        } catch (CompletionException e) {
+            throw notAvailable(List.of(key), e);
+        } finally {
+            ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "rate");
+        }
+    }
+
+    /**
+     * Obtiene varias claves; las ausentes del caché se cargan con una sola llamada al servicio externo.
+     *
+     * @param keys Claves de los porcentajes
+     * @return Porcentaje por clave
+     * @throws PercentageNotFoundException si alguna clave no existe o no se pudo obtener
+     */
+    public Map<String, Double> getPercentages(Collection<String> keys) {
+        long start = ServerTiming.start();
+        try {
+            Map<String, Double> percentages = percentageRatesCache.getAll(keys).join();
+            List<String> missing = keys.stream().filter(key -> !isKnown(percentages.get(key))).toList();
+            if (!missing.isEmpty()) {
+                throw new PercentageNotFoundException("No hay porcentaje para las claves " + missing);
+            }
+            return percentages;
+        } catch (CompletionException e) {
+            throw notAvailable(keys, e);
+        } finally {
+            ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "rate");
+        }
+    }
+
+    /**
+     * Variante sin bloqueo de {@link #getPercentage}: la carga, si hace falta, se ejecuta en el pool del caché.
+     *
+     * @return Future con el porcentaje; falla con {@link PercentageNotFoundException}
+     */
+    public CompletableFuture<Double> getPercentageAsync(String key) {
+        return percentageRatesCache.get(key).handle((percentage, error) -> {
+            if (error != null) {
+                throw notAvailable(List.of(key), error);
+            }
+            return require(key, percentage);
+        });
+    }
+
+    /**
+     * @return Claves con porcentaje en caché
+     */
+    public long getCachedKeyCount() {
+        return percentageRatesCache.synchronous().estimatedSize();
+    }
+
+    private static boolean isKnown(Double percentage) {
+        return percentage != null && !CacheConfig.UNKNOWN_RATE.equals(percentage);
+    }
+
+    private static Double require(String key, Double percentage) {
+        if (!isKnown(percentage)) {
+            throw new PercentageNotFoundException("No hay porcentaje para la clave " + key);
+        }
+        return percentage;
+    }
+
+    private static PercentageNotFoundException notAvailable(Collection<String> keys, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof PercentageNotFoundException notFound) {
+            return notFound;
+        }
+        log.warn("No se pudo obtener el porcentaje de las claves {}: {}", keys, cause.getMessage());
+        return new PercentageNotFoundException("No se pudo obtener el porcentaje para " + keys
+                + ". El servicio externo no está disponible y no hay valor en caché.", cause);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,225 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.entity.HistorySpoolCheckpoint;
+import com.tekton.backend.repository.HistorySpoolCheckpointRepository;
+import com.tekton.backend.util.MappedRecordSpool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escritor de historial con write-ahead spool local.
+ *
+ * Cada registro se agrega primero a un spool append-only mapeado en memoria
+ * ({@link MappedRecordSpool}), por lo que la latencia de la petición no depende de la base de datos.
+ * Un hilo dedicado reproduce el spool en orden hacia api_call_history con JDBC batch y guarda
+ * el checkpoint en la misma transacción: si la base de datos está caída o lenta, los registros
+ * se acumulan en disco y se insertan cuando se recupera, sin duplicados ni pérdidas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "history.writer.mode", havingValue = "spool")
+public class SpoolingApiCallHistoryWriter implements ApiCallHistoryWriter {
+
+    private final ObjectMapper objectMapper;
+    private final ApiCallHistoryBatchInserter batchInserter;
+    private final HistorySpoolCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryPayloadCodec payloadCodec;
+    private final HistoryWriteLagRecorder writeLagRecorder;
+
+    @Value("${history.spool.dir:${java.io.tmpdir}/tekton-history-spool}")
+    private Path spoolDir;
+
+    @Value("${history.spool.id:${HOSTNAME:local}}")
+    private String spoolId;
+
+    @Value("${history.spool.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${history.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${history.writer.linger-ms:200}")
+    private long lingerMs;
+
+    @Value("${history.spool.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${history.spool.force-interval-ms:1000}")
+    private long forceIntervalMs;
+
+    private MappedRecordSpool spool;
+    private Thread replayer;
+    private volatile boolean running;
+    private volatile MappedRecordSpool.Position checkpoint;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder replayFailures = new LongAdder();
+
+    @PostConstruct
+    void start() throws IOException {
+        spool = new MappedRecordSpool(spoolDir, segmentSizeMb * 1024 * 1024);
+        running = true;
+        replayer = new Thread(this::run, "api-history-spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+        log.info("Spool de historial iniciado en {} (id={})", spoolDir, spoolId);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        replayer.interrupt();
+        replayer.join(TimeUnit.SECONDS.toMillis(30));
+        spool.close();
+    }
+
+    /**
+     * Agrega el registro al spool local. No depende de la disponibilidad de la base de datos.
+     */
+    @Override
+    public void write(ApiCallHistory history) {
+        try {
+            // El spool guarda el registro completo: los cuerpos se serializan aquí, antes del append
+            payloadCodec.materialize(history);
+            if (spool.append(objectMapper.writeValueAsBytes(history))) {
+                appended.increment();
+            } else {
+                dropped.increment();
+                log.warn("Registro de historial demasiado grande para el spool, descartado: {}", history.getEndpoint());
+            }
+        } catch (Exception e) {
+            dropped.increment();
+            log.error("Error al escribir historial en el spool: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run() {
+        long backoffMs = 0;
+        long lastForce = System.nanoTime();
+        while (running) {
+            try {
+                if (backoffMs > 0) {
+                    Thread.sleep(backoffMs);
+                }
+                if (checkpoint == null) {
+                    checkpoint = loadCheckpoint();
+                }
+
+                int replayedNow = replayBatch();
+                backoffMs = 0;
+
+                if (System.nanoTime() - lastForce > TimeUnit.MILLISECONDS.toNanos(forceIntervalMs)) {
+                    spool.force();
+                    lastForce = System.nanoTime();
+                }
+                if (replayedNow < batchSize) {
+                    Thread.sleep(lingerMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                replayFailures.increment();
+                backoffMs = Math.min(maxBackoffMs, Math.max(100, backoffMs * 2));
+                log.warn("Error al reproducir el spool de historial, reintento en {} ms: {}", backoffMs, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inserta el siguiente lote del spool y avanza el checkpoint en la misma transacción.
+     *
+     * @return Número de registros insertados
+     */
+    int replayBatch() throws IOException {
+        List<MappedRecordSpool.Entry> entries = spool.read(checkpoint, batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        List<ApiCallHistory> batch = new ArrayList<>(entries.size());
+        for (MappedRecordSpool.Entry entry : entries) {
+            batch.add(objectMapper.readValue(entry.data(), ApiCallHistory.class));
+        }
+        MappedRecordSpool.Position next = entries.get(entries.size() - 1).next();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            batchInserter.insert(batch);
+            checkpointRepository.save(HistorySpoolCheckpoint.builder()
+                    .spoolId(spoolId)
+                    .segment(next.segment())
+                    .position(next.offset())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        });
+
+        if (next.segment() > checkpoint.segment()) {
+            spool.deleteSegmentsBefore(next.segment());
+        }
+        checkpoint = next;
+        writeLagRecorder.committed(batch);
+        replayed.add(batch.size());
+        log.debug("Reproducidos {} registros del spool de historial", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Carga el checkpoint de la base de datos o, si no existe, empieza desde el inicio del spool.
+     */
+    private MappedRecordSpool.Position loadCheckpoint() throws IOException {
+        HistorySpoolCheckpoint stored = checkpointRepository.findById(spoolId).orElse(null);
+        if (stored == null) {
+            return spool.start();
+        }
+        MappedRecordSpool.Position position = new MappedRecordSpool.Position(stored.getSegment(), stored.getPosition());
+        MappedRecordSpool.Position start = spool.start();
+        return position.compareTo(start) < 0 ? start : position;
+    }
+
+    void setCheckpoint(MappedRecordSpool.Position checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getReplayFailureCount() {
+        return replayFailures.sum();
+    }
+
+    /**
+     * @return Registros escritos en el spool y aún no confirmados en la base de datos
+     */
+    public long getPendingCount() {
+        return appended.sum() - replayed.sum();
+    }
+}
@@ -0,0 +1,243 @@
+package com.tekton.backend.util;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker con ventana deslizante por número de llamadas.
+ *
+ * Estados:
+ * <ul>
+ *   <li>{@code CLOSED}: las llamadas pasan y se registra su resultado. Si en la ventana la tasa de
+ *       fallos o la de llamadas lentas supera su umbral, el circuito se abre.</li>
+ *   <li>{@code OPEN}: las llamadas se rechazan de inmediato con {@link CallNotPermittedException}
+ *       hasta que vence el tiempo de apertura.</li>
+ *   <li>{@code HALF_OPEN}: se permite un número limitado de llamadas de prueba; si todas terminan
+ *       bien el circuito se cierra, y con el primer fallo o llamada lenta vuelve a abrirse.</li>
+ * </ul>
+ * Mientras está abierto, el rechazo solo lee un campo volátil, sin bloqueo.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Excepción lanzada cuando el circuito no permite la llamada.
+     */
+    public static class CallNotPermittedException extends RuntimeException {
+
+        public CallNotPermittedException(String name) {
+            super("Circuit breaker '" + name + "' abierto, llamada rechazada");
+        }
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntilNanos;
+
+    // Ventana circular de resultados; protegida por el monitor de la instancia
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failures;
+    private int slows;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder transitions = new LongAdder();
+
+    /**
+     * @param name Nombre del circuito, para logs y mensajes
+     * @param windowSize Número de llamadas en la ventana deslizante
+     * @param minimumCalls Llamadas mínimas en la ventana antes de evaluar las tasas
+     * @param failureRateThreshold Porcentaje de fallos que abre el circuito
+     * @param slowCallRateThreshold Porcentaje de llamadas lentas que abre el circuito
+     * @param slowCallThresholdMs Duración a partir de la cual una llamada se considera lenta
+     * @param openDurationMs Tiempo que el circuito permanece abierto antes de probar
+     * @param halfOpenPermittedCalls Llamadas de prueba permitidas en estado semiabierto
+     */
+    @Builder
+    private CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                           int slowCallRateThreshold, long slowCallThresholdMs, long openDurationMs,
+                           int halfOpenPermittedCalls) {
+        this.name = name;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenPermittedCalls = Math.max(1, halfOpenPermittedCalls);
+        this.failedCalls = new boolean[this.windowSize];
+        this.slowCalls = new boolean[this.windowSize];
+    }
+
+    /**
+     * Ejecuta la operación si el circuito lo permite y registra su resultado.
+     *
+     * @throws CallNotPermittedException si el circuito está abierto
+     */
+    public <T> T execute(Supplier<T> supplier) {
+        if (!tryAcquirePermission()) {
+            throw new CallNotPermittedException(name);
+        }
+        long start = System.nanoTime();
+        try {
+            T result = supplier.get();
+            onResult(false, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException | Error e) {
+            onResult(true, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * @return true si la llamada puede realizarse
+     */
+    public boolean tryAcquirePermission() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openUntilNanos < 0) {
+            notPermitted.increment();
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                return true;
+            }
+        }
+        notPermitted.increment();
+        return false;
+    }
+
+    /**
+     * Registra el resultado de una llamada permitida.
+     *
+     * @param failed true si la llamada falló
+     * @param durationNanos Duración de la llamada
+     */
+    public synchronized void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos > slowCallThresholdNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= halfOpenPermittedCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            // Llamada iniciada antes de abrir el circuito
+            return;
+        }
+
+        if (recordedCalls == windowSize) {
+            failures -= failedCalls[windowIndex] ? 1 : 0;
+            slows -= slowCalls[windowIndex] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        failures += failed ? 1 : 0;
+        slows += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % windowSize;
+
+        if (recordedCalls >= minimumCalls
+                && (rate(failures) >= failureRateThreshold || rate(slows) >= slowCallRateThreshold)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        if (next == State.OPEN) {
+            log.warn("Circuit breaker '{}' {} -> OPEN (fallos={}%, lentas={}%)",
+                    name, previous, rate(failures), rate(slows));
+            openUntilNanos = System.nanoTime() + openDurationNanos;
+        } else {
+            log.info("Circuit breaker '{}' {} -> {}", name, previous, next);
+        }
+        resetWindow();
+        halfOpenPermits = next == State.HALF_OPEN ? halfOpenPermittedCalls : 0;
+        halfOpenSuccesses = 0;
+        state = next;
+        transitions.increment();
+    }
+
+    private void resetWindow() {
+        Arrays.fill(failedCalls, false);
+        Arrays.fill(slowCalls, false);
+        windowIndex = 0;
+        recordedCalls = 0;
+        failures = 0;
+        slows = 0;
+    }
+
+    private int rate(int count) {
+        return recordedCalls == 0 ? 0 : count * 100 / recordedCalls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return Porcentaje de fallos en la ventana actual
+     */
+    public synchronized int getFailureRate() {
+        return rate(failures);
+    }
+
+    /**
+     * @return Porcentaje de llamadas lentas en la ventana actual
+     */
+    public synchronized int getSlowCallRate() {
+        return rate(slows);
+    }
+
+    /**
+     * @return Llamadas rechazadas por circuito abierto
+     */
+    public long getNotPermittedCount() {
+        return notPermitted.sum();
+    }
+
+    /**
+     * @return Número de cambios de estado
+     */
+    public long getTransitionCount() {
+        return transitions.sum();
+    }
+}
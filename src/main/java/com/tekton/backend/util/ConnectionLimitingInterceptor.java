@@ -0,0 +1,286 @@
+package com.tekton.backend.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Interceptor que limita las peticiones concurrentes hacia un servicio externo y expone
+ * métricas del pool de conexiones.
+ *
+ * El HttpClient del JDK reutiliza conexiones keep-alive pero no limita cuántas abre en paralelo;
+ * este interceptor acota las conexiones en uso y el tiempo de espera por una libre, de modo que
+ * la espera más el intercambio no superen el deadline total de la llamada.
+ *
+ * La conexión se considera en uso hasta que se cierra la respuesta (después de leer el cuerpo), y la
+ * latencia registrada incluye la transferencia del cuerpo. Si el deadline total vence durante la lectura
+ * del cuerpo, la siguiente lectura falla con {@link SocketTimeoutException}.
+ *
+ * Las llamadas con {@code HttpClient.sendAsync} no pasan por el RestTemplate; {@link #executeAsync} les aplica
+ * el mismo límite y el mismo deadline total sin bloquear el hilo que llama.
+ */
+public class ConnectionLimitingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxConnections;
+    private final long acquireTimeoutMs;
+    private final long totalTimeoutNanos;
+    private final Semaphore permits;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final AtomicLong lastLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param maxConnections Máximo de peticiones simultáneas (conexiones en uso)
+     * @param acquireTimeoutMs Tiempo máximo de espera por una conexión libre
+     * @param totalTimeoutMs Deadline total de la llamada (espera, intercambio y lectura del cuerpo); 0 sin límite
+     */
+    public ConnectionLimitingInterceptor(int maxConnections, long acquireTimeoutMs, long totalTimeoutMs) {
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.totalTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs);
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long deadline = System.nanoTime() + totalTimeoutNanos;
+        acquire(request.getURI().getHost());
+        long start = System.nanoTime();
+        requests.increment();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            release(start);
+            throw e;
+        }
+        if (totalTimeoutNanos > 0 && System.nanoTime() - deadline > 0) {
+            failures.increment();
+            release(start);
+            response.close();
+            throw new SocketTimeoutException(deadlineMessage(request));
+        }
+        return new TrackedResponse(response, request, start, deadline);
+    }
+
+    /**
+     * Ejecuta una llamada asíncrona con una conexión del pool. Si no hay una libre, la espera (hasta el tiempo
+     * máximo de espera) ocurre en un hilo virtual; la conexión se libera cuando la llamada termina.
+     *
+     * @param host Host destino, para los mensajes de error
+     * @param call Inicia la llamada una vez obtenida la conexión
+     * @return Future de la llamada; falla con {@link ResourceAccessException} si el pool está agotado o si se
+     *         supera el deadline total, en cuyo caso se cancela la llamada en curso
+     */
+    public <T> CompletableFuture<T> executeAsync(String host, Supplier<CompletableFuture<T>> call) {
+        long deadline = System.nanoTime() + totalTimeoutNanos;
+        CompletableFuture<Void> acquired = !permits.hasQueuedThreads() && permits.tryAcquire()
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> acquire(host), Thread::startVirtualThread);
+        CompletableFuture<T> result = acquired.thenCompose(ignored -> {
+            long start = System.nanoTime();
+            requests.increment();
+            CompletableFuture<T> exchange;
+            try {
+                exchange = call.get();
+            } catch (RuntimeException e) {
+                failures.increment();
+                release(start);
+                return CompletableFuture.failedFuture(e);
+            }
+            exchange.whenComplete((value, error) -> {
+                if (error != null) {
+                    failures.increment();
+                }
+                release(start);
+            });
+            if (totalTimeoutNanos <= 0) {
+                return exchange;
+            }
+            return exchange.copy()
+                    .orTimeout(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    .whenComplete((value, error) -> {
+                        if (error instanceof TimeoutException) {
+                            exchange.cancel(true);
+                        }
+                    });
+        });
+        return result.exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                return CompletableFuture.failedFuture(new ResourceAccessException(
+                        deadlineMessage(host), new SocketTimeoutException(deadlineMessage(host))));
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private void release(long start) {
+        long elapsed = System.nanoTime() - start;
+        lastLatencyNanos.set(elapsed);
+        maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+        permits.release();
+    }
+
+    private String deadlineMessage(HttpRequest request) {
+        return deadlineMessage(request.getURI().getHost());
+    }
+
+    private String deadlineMessage(String host) {
+        return "Deadline total de " + TimeUnit.NANOSECONDS.toMillis(totalTimeoutNanos) + "ms superado para " + host;
+    }
+
+    private void acquire(String host) {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new ResourceAccessException("Pool de conexiones agotado (" + maxConnections + ") para " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrumpido esperando una conexión para " + host);
+        }
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return Conexiones actualmente en uso
+     */
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * @return Hilos esperando una conexión libre
+     */
+    public int getPendingAcquires() {
+        return permits.getQueueLength();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getAcquireTimeoutCount() {
+        return acquireTimeouts.sum();
+    }
+
+    public double getLastLatencyMs() {
+        return lastLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxLatencyMs() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Respuesta que libera la conexión al cerrarse y aplica el deadline total a la lectura del cuerpo.
+     */
+    private final class TrackedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpRequest request;
+        private final long start;
+        private final long deadline;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private InputStream body;
+
+        private TrackedResponse(ClientHttpResponse delegate, HttpRequest request, long start, long deadline) {
+            this.delegate = delegate;
+            this.request = request;
+            this.start = start;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                InputStream delegateBody = delegate.getBody();
+                body = totalTimeoutNanos > 0 ? new DeadlineInputStream(delegateBody) : delegateBody;
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release(start);
+                }
+            }
+        }
+
+        private final class DeadlineInputStream extends FilterInputStream {
+
+            private DeadlineInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                checkDeadline();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkDeadline();
+                return super.read(b, off, len);
+            }
+
+            private void checkDeadline() throws SocketTimeoutException {
+                if (System.nanoTime() - deadline > 0) {
+                    failures.increment();
+                    throw new SocketTimeoutException(deadlineMessage(request));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.tekton.backend.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresión deflate (sin cabecera zlib) con diccionario predefinido opcional.
+ *
+ * Los payloads del historial son JSON pequeños y repetitivos; sin diccionario deflate apenas gana en
+ * unos cientos de bytes porque aún no ha visto los nombres de campo. Con {@link #JSON_DICTIONARY} las
+ * primeras referencias ya apuntan al diccionario.
+ * Deflater e Inflater no son thread-safe y reservan memoria nativa, por lo que se crean y liberan en
+ * cada llamada.
+ */
+public class DeflatePayloadCompressor implements PayloadCompressor {
+
+    /**
+     * Diccionario con las formas JSON de CalculationRequest, CalculationResponse y ErrorResponse.
+     * Las cadenas más frecuentes van al final, donde deflate las codifica con distancias más cortas.
+     * No debe modificarse: los valores almacenados con él no se podrían leer. Para un diccionario
+     * nuevo se define otro compresor con otro id.
+     */
+    public static final byte[] JSON_DICTIONARY = ("{\"timestamp\":\"2024-01-15T10:30:00.000000\",\"status\":400,"
+            + "\"error\":\"Bad Request\",\"message\":\"Error de validación\",\"details\":{\"num1\":\"El campo num1 es "
+            + "obligatorio\",\"num2\":\"El campo num2 es obligatorio\"}}"
+            + "{\"items\":100,\"processed\":100,\"errors\":0}"
+            + ",\"timestamp\":\"2025-01-15T10:30:00.123456\"},"
+            + "{\"result\":34.08,\"num1\":10.5,\"num2\":20.3,\"sum\":30.8,\"percentage\":10.0"
+            + ",\"timestamp\":\"2026-"
+            + "[{\"num1\":10.0,\"num2\":20.0},{\"num1\":1.5,\"num2\":2.5},{\"num1\":"
+            + ".0,\"num2\":").getBytes(StandardCharsets.UTF_8);
+
+    private final byte id;
+    private final int level;
+    private final byte[] dictionary;
+
+    /**
+     * @param id Identificador del formato
+     * @param level Nivel de compresión (1-9)
+     * @param dictionary Diccionario predefinido, o null
+     */
+    public DeflatePayloadCompressor(byte id, int level, byte[] dictionary) {
+        this.id = id;
+        this.level = level;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public byte id() {
+        return id;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+            byte[] buffer = new byte[Math.min(8192, length + 64)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            if (dictionary != null) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Payload comprimido truncado o corrupto");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Payload comprimido inválido: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
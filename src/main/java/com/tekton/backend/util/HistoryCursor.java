@@ -0,0 +1,53 @@
+package com.tekton.backend.util;
+
+import com.tekton.backend.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor de paginación keyset del historial: posición {@code (timestamp, id)} y dirección.
+ * Se envía al cliente como texto opaco en Base64 URL-safe.
+ *
+ * @param direction {@link Direction#NEXT} para registros más antiguos, {@link Direction#PREVIOUS} para más recientes
+ * @param timestamp Timestamp del registro de referencia
+ * @param id Id del registro de referencia (desempate entre timestamps iguales)
+ */
+public record HistoryCursor(Direction direction, LocalDateTime timestamp, long id) {
+
+    public enum Direction { NEXT, PREVIOUS }
+
+    private static final char SEPARATOR = '|';
+
+    public static HistoryCursor next(LocalDateTime timestamp, long id) {
+        return new HistoryCursor(Direction.NEXT, timestamp, id);
+    }
+
+    public static HistoryCursor previous(LocalDateTime timestamp, long id) {
+        return new HistoryCursor(Direction.PREVIOUS, timestamp, id);
+    }
+
+    public String encode() {
+        String raw = (direction == Direction.NEXT ? "n" : "p") + SEPARATOR + timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidCursorException si el texto no corresponde a un cursor emitido por la API
+     */
+    public static HistoryCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !(parts[0].equals("n") || parts[0].equals("p"))) {
+                throw new InvalidCursorException("Cursor de paginación inválido");
+            }
+            Direction direction = parts[0].equals("n") ? Direction.NEXT : Direction.PREVIOUS;
+            return new HistoryCursor(direction, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Cursor de paginación inválido");
+        }
+    }
+}
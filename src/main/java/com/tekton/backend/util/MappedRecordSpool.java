@@ -0,0 +1,297 @@
+package com.tekton.backend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Spool de registros append-only sobre archivos mapeados en memoria (write-ahead log local).
+ *
+ * Los registros se escriben en segmentos de tamaño fijo. Cada registro tiene una cabecera
+ * de 8 bytes (longitud y CRC32) seguida del contenido; una longitud 0 marca el final de los
+ * datos del segmento (los archivos nuevos están rellenos de ceros). Al abrir el spool se
+ * recorre el último segmento para recuperar la posición de escritura, descartando un
+ * registro final incompleto.
+ *
+ * Los identificadores de segmento son crecientes y se basan en el reloj, de modo que un
+ * directorio vacío nunca reutiliza identificadores ya confirmados en un checkpoint externo.
+ *
+ * Admite escritores concurrentes (append con lock) y un único lector. Se usa ReentrantLock en lugar
+ * de synchronized para que el force() al rotar segmento no fije (pin) hilos virtuales.
+ */
+public class MappedRecordSpool implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    /**
+     * Posición dentro del spool: segmento y desplazamiento en bytes.
+     */
+    public record Position(long segment, int offset) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    /**
+     * Registro leído junto con la posición inmediatamente posterior.
+     */
+    public record Entry(byte[] data, Position next) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel writeChannel;
+    private MappedByteBuffer writeBuffer;
+    private long writeSegment;
+    private volatile Position writePosition;
+
+    private long readSegment = -1;
+    private MappedByteBuffer readBuffer;
+
+    public MappedRecordSpool(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            openSegment(nextSegmentId(0));
+        } else {
+            openSegment(segments.get(segments.size() - 1));
+            recoverWriteOffset();
+        }
+    }
+
+    /**
+     * Agrega un registro al final del spool.
+     *
+     * @param data Contenido del registro
+     * @return false si el registro no cabe en un segmento
+     */
+    public boolean append(byte[] data) throws IOException {
+        int needed = HEADER_BYTES + data.length;
+        if (needed > segmentSize) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        lock.lock();
+        try {
+            if (writeBuffer.position() + needed > segmentSize) {
+                writeBuffer.force();
+                writeChannel.close();
+                openSegment(nextSegmentId(writeSegment));
+            }
+
+            int offset = writeBuffer.position();
+            writeBuffer.putInt(offset + 4, (int) crc.getValue());
+            writeBuffer.put(offset + HEADER_BYTES, data);
+            // La longitud se escribe al final: mientras sea 0 el registro no es visible
+            writeBuffer.putInt(offset, data.length);
+            writeBuffer.position(offset + needed);
+            writePosition = new Position(writeSegment, offset + needed);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lee hasta {@code max} registros a partir de la posición indicada, en orden de escritura.
+     * Solo debe invocarse desde un único hilo lector.
+     */
+    public List<Entry> read(Position from, int max) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Position end = writePosition;
+        Position position = from;
+
+        while (entries.size() < max && position.compareTo(end) < 0) {
+            MappedByteBuffer buffer = mapForRead(position.segment());
+            if (buffer == null) {
+                Position next = firstPositionAfter(position.segment());
+                if (next == null) {
+                    break;
+                }
+                position = next;
+                continue;
+            }
+
+            int limit = position.segment() == end.segment() ? end.offset() : segmentSize;
+            int offset = position.offset();
+            int length = offset + HEADER_BYTES <= limit ? buffer.getInt(offset) : 0;
+            if (length <= 0 || offset + HEADER_BYTES + length > limit
+                    || !checksumMatches(buffer, offset, length)) {
+                // Fin de datos del segmento (o registro final incompleto tras una caída)
+                if (position.segment() == end.segment()) {
+                    break;
+                }
+                Position next = firstPositionAfter(position.segment());
+                if (next == null) {
+                    break;
+                }
+                position = next;
+                continue;
+            }
+
+            byte[] data = new byte[length];
+            buffer.get(offset + HEADER_BYTES, data);
+            position = new Position(position.segment(), offset + HEADER_BYTES + length);
+            entries.add(new Entry(data, position));
+        }
+        return entries;
+    }
+
+    /**
+     * Elimina los segmentos anteriores al indicado, ya confirmados por el consumidor.
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        lock.lock();
+        try {
+            for (Long id : listSegments()) {
+                if (id < segment && id != writeSegment) {
+                    if (id == readSegment) {
+                        readSegment = -1;
+                        readBuffer = null;
+                    }
+                    Files.deleteIfExists(segmentPath(id));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Posición inicial del spool (primer segmento existente)
+     */
+    public Position start() throws IOException {
+        List<Long> segments = listSegments();
+        return new Position(segments.isEmpty() ? writeSegment : segments.get(0), 0);
+    }
+
+    /**
+     * @return Posición tras el último registro escrito
+     */
+    public Position end() {
+        return writePosition;
+    }
+
+    /**
+     * Fuerza la escritura a disco del segmento activo.
+     */
+    public void force() {
+        lock.lock();
+        try {
+            writeBuffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writeBuffer.force();
+            writeChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        writeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeBuffer = writeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        writeSegment = segment;
+        writePosition = new Position(segment, 0);
+    }
+
+    /**
+     * Recorre el segmento activo hasta el primer registro inválido y limpia el resto,
+     * para que un registro incompleto no quede visible tras nuevas escrituras.
+     */
+    private void recoverWriteOffset() {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = writeBuffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize
+                    || !checksumMatches(writeBuffer, offset, length)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        for (int i = offset; i < segmentSize; i++) {
+            if (writeBuffer.get(i) != 0) {
+                writeBuffer.put(i, (byte) 0);
+            }
+        }
+        writeBuffer.position(offset);
+        writePosition = new Position(writeSegment, offset);
+    }
+
+    private MappedByteBuffer mapForRead(long segment) throws IOException {
+        if (segment == readSegment) {
+            return readBuffer;
+        }
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+            readSegment = segment;
+            return readBuffer;
+        }
+    }
+
+    private Position firstPositionAfter(long segment) throws IOException {
+        for (Long id : listSegments()) {
+            if (id > segment) {
+                return new Position(id, 0);
+            }
+        }
+        return null;
+    }
+
+    private static boolean checksumMatches(MappedByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return buffer.getInt(offset + 4) == (int) crc.getValue();
+    }
+
+    private long nextSegmentId(long current) {
+        return Math.max(current + 1, System.currentTimeMillis());
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,174 @@
+package com.tekton.backend.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes reutilizable con límite de tamaño, para serializar payloads sin crear un
+ * String ni un array intermedio por llamada.
+ *
+ * Al superar el límite guarda solo los primeros bytes y lanza {@link #LIMIT_REACHED}, lo que
+ * interrumpe la serialización en lugar de completarla para descartarla después. Los métodos
+ * {@code copy} guardan igual hasta el límite pero sin lanzar, para duplicar un flujo HTTP que no
+ * debe interrumpirse.
+ */
+public class PayloadBuffer extends OutputStream {
+
+    /**
+     * Señal de límite alcanzado; sin stack trace porque se usa como control de flujo.
+     */
+    public static final IOException LIMIT_REACHED = new IOException("Límite del payload alcanzado") {
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private byte[] bytes;
+    private int count;
+    private int limit = Integer.MAX_VALUE;
+    private boolean truncated;
+
+    public PayloadBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Vacía el buffer para reutilizarlo.
+     *
+     * @param limit Máximo de bytes a guardar; 0 sin límite
+     */
+    public void reset(int limit) {
+        this.count = 0;
+        this.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+        this.truncated = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count >= limit) {
+            truncated = true;
+            throw LIMIT_REACHED;
+        }
+        ensureCapacity(count + 1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int accepted = (int) Math.min(len, (long) limit - count);
+        ensureCapacity(count + accepted);
+        System.arraycopy(b, off, bytes, count, accepted);
+        count += accepted;
+        if (accepted < len) {
+            truncated = true;
+            throw LIMIT_REACHED;
+        }
+    }
+
+    /**
+     * Como {@link #write(int)}, pero al superar el límite solo marca el buffer como truncado.
+     */
+    public void copy(int b) {
+        if (count >= limit) {
+            truncated = true;
+            return;
+        }
+        ensureCapacity(count + 1);
+        bytes[count++] = (byte) b;
+    }
+
+    /**
+     * Como {@link #write(byte[], int, int)}, pero al superar el límite solo marca el buffer como truncado.
+     */
+    public void copy(byte[] b, int off, int len) {
+        int accepted = (int) Math.min(len, (long) limit - count);
+        ensureCapacity(count + accepted);
+        System.arraycopy(b, off, bytes, count, accepted);
+        count += accepted;
+        if (accepted < len) {
+            truncated = true;
+        }
+    }
+
+    /**
+     * Deja como máximo {@code maxBytes} bytes; si sobran, recorta y agrega {@code suffix}
+     * con {@link #finishTruncated(byte[])}.
+     *
+     * @param maxBytes Máximo de bytes, sufijo incluido; 0 para usar solo el límite de {@link #reset(int)}
+     */
+    public void truncate(int maxBytes, byte[] suffix) {
+        if (maxBytes > 0 && maxBytes < limit) {
+            limit = maxBytes;
+        }
+        if (count > limit) {
+            truncated = true;
+        }
+        if (truncated) {
+            finishTruncated(suffix);
+        }
+    }
+
+    /**
+     * Recorta el contenido para que, con {@code suffix} agregado, no supere el límite, quita un carácter
+     * UTF-8 incompleto al final y agrega {@code suffix}. Si el límite no alcanza para el sufijo, solo recorta.
+     */
+    public void finishTruncated(byte[] suffix) {
+        byte[] tail = suffix.length < limit ? suffix : new byte[0];
+        int end = (int) Math.min(count, (long) limit - tail.length);
+        int lead = end - 1;
+        while (lead >= 0 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead >= 0 && lead + utf8Length(bytes[lead]) > end) {
+            end = lead;
+        }
+        ensureCapacity(end + tail.length);
+        System.arraycopy(tail, 0, bytes, end, tail.length);
+        count = end + tail.length;
+    }
+
+    private static int utf8Length(byte lead) {
+        if ((lead & 0x80) == 0) {
+            return 1;
+        }
+        if ((lead & 0xE0) == 0xC0) {
+            return 2;
+        }
+        return (lead & 0xF0) == 0xE0 ? 3 : 4;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+
+    /**
+     * @return Array interno; solo son válidos los primeros {@link #size()} bytes
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * @return Copia de los bytes válidos
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
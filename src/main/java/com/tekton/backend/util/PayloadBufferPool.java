@@ -0,0 +1,40 @@
+package com.tekton.backend.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool acotado de {@link PayloadBuffer}. Los buffers que crecen por encima de {@code maxRetained}
+ * bytes no se devuelven al pool, para no retener memoria por un payload grande ocasional.
+ */
+public class PayloadBufferPool {
+
+    private final BlockingQueue<PayloadBuffer> buffers;
+    private final int initialCapacity;
+    private final int maxRetained;
+
+    /**
+     * @param size Buffers conservados como máximo
+     * @param initialCapacity Capacidad inicial de los buffers nuevos
+     * @param maxRetained Capacidad máxima de un buffer devuelto al pool
+     */
+    public PayloadBufferPool(int size, int initialCapacity, int maxRetained) {
+        this.buffers = new ArrayBlockingQueue<>(size);
+        this.initialCapacity = initialCapacity;
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * @return Buffer del pool, o uno nuevo si está vacío. Se debe vaciar con {@link PayloadBuffer#reset(int)}.
+     */
+    public PayloadBuffer acquire() {
+        PayloadBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new PayloadBuffer(initialCapacity);
+    }
+
+    public void release(PayloadBuffer buffer) {
+        if (buffer.capacity() <= maxRetained) {
+            buffers.offer(buffer);
+        }
+    }
+}
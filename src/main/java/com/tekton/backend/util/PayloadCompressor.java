@@ -0,0 +1,32 @@
+package com.tekton.backend.util;
+
+/**
+ * Algoritmo de compresión de los payloads del historial.
+ *
+ * Cada valor comprimido se guarda precedido por {@link #id()}, de modo que los datos existentes se
+ * siguen leyendo aunque se cambie el algoritmo configurado. Un id no debe reutilizarse para un
+ * formato distinto (p. ej. otro diccionario).
+ */
+public interface PayloadCompressor {
+
+    /**
+     * @return Identificador del formato, almacenado en el primer byte de cada valor comprimido
+     */
+    byte id();
+
+    /**
+     * @param data Buffer con los datos originales
+     * @param offset Posición del primer byte
+     * @param length Número de bytes
+     * @return Datos comprimidos, sin el identificador
+     */
+    byte[] compress(byte[] data, int offset, int length);
+
+    /**
+     * @param data Buffer con los datos comprimidos
+     * @param offset Posición del primer byte comprimido
+     * @param length Número de bytes comprimidos
+     * @return Datos originales
+     */
+    byte[] decompress(byte[] data, int offset, int length);
+}
@@ -0,0 +1,158 @@
+package com.tekton.backend.util;
+
+/**
+ * Desglose de la latencia de una petición para la cabecera {@code Server-Timing}.
+ *
+ * La crea {@link com.tekton.backend.filter.ServerTimingFilter} por petición y queda asociada al hilo;
+ * los servicios miden sus etapas con {@link #start()} y {@link #record(Stage, long)}, que sin una
+ * medición activa se reducen a una lectura del ThreadLocal. Las duraciones se acumulan en un
+ * array de longs con {@code System.nanoTime}; solo se crea un String al escribir la cabecera.
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * Valor de {@link #start()} cuando no hay medición activa.
+     */
+    public static final long INACTIVE = Long.MIN_VALUE;
+
+    /**
+     * Etapas medidas, con el nombre de la métrica en la cabecera.
+     */
+    public enum Stage {
+        PERCENTAGE("pct"),
+        CALCULATION("calc"),
+        DB_QUERY("db"),
+        DB_COUNT("count"),
+        HISTORY_ENQUEUE("hist"),
+        SERIALIZATION("ser");
+
+        private final String metric;
+
+        Stage(String metric) {
+            this.metric = metric;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final long[] durations = new long[STAGES.length];
+    private final String[] descriptions = new String[STAGES.length];
+    private int recorded;
+    private long serializationStart = INACTIVE;
+
+    private ServerTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Inicia la medición de la petición en el hilo actual.
+     */
+    public static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Desasocia la medición del hilo actual.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return Medición del hilo actual, o null si no hay
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return Inicio de una etapa, o {@link #INACTIVE} si no hay medición activa
+     */
+    public static long start() {
+        return CURRENT.get() != null ? System.nanoTime() : INACTIVE;
+    }
+
+    /**
+     * Suma a la etapa el tiempo transcurrido desde {@code start}.
+     */
+    public static void record(Stage stage, long start) {
+        record(stage, start, null);
+    }
+
+    /**
+     * Suma a la etapa el tiempo transcurrido desde {@code start}.
+     *
+     * @param description Descripción de la etapa (p. ej. el origen del porcentaje); la última gana
+     */
+    public static void record(Stage stage, long start, String description) {
+        if (start == INACTIVE) {
+            return;
+        }
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(stage, System.nanoTime() - start, description);
+        }
+    }
+
+    private void add(Stage stage, long nanos, String description) {
+        durations[stage.ordinal()] += nanos;
+        recorded |= 1 << stage.ordinal();
+        if (description != null) {
+            descriptions[stage.ordinal()] = description;
+        }
+    }
+
+    /**
+     * Marca el inicio de la serialización de la respuesta.
+     */
+    public void startSerialization() {
+        serializationStart = System.nanoTime();
+    }
+
+    /**
+     * Marca el fin de la serialización, si había empezado.
+     */
+    public void endSerialization() {
+        if (serializationStart != INACTIVE) {
+            add(Stage.SERIALIZATION, System.nanoTime() - serializationStart, null);
+            serializationStart = INACTIVE;
+        }
+    }
+
+    /**
+     * @return Valor de la cabecera con las etapas registradas y el total hasta ahora
+     */
+    public String header() {
+        StringBuilder header = new StringBuilder(128);
+        for (Stage stage : STAGES) {
+            if ((recorded & (1 << stage.ordinal())) != 0) {
+                appendMetric(header, stage.metric, durations[stage.ordinal()], descriptions[stage.ordinal()]);
+            }
+        }
+        appendMetric(header, "total", System.nanoTime() - startNanos, null);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String metric, long nanos, String description) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        // Milisegundos con tres decimales, sin String.format
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(metric).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append(fraction < 10 ? "00" : "0");
+        }
+        header.append(fraction);
+        if (description != null) {
+            header.append(";desc=\"").append(description).append('"');
+        }
+    }
+}
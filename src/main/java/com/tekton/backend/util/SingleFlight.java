@@ -0,0 +1,119 @@
+package com.tekton.backend.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave en una única ejecución (single-flight).
+ * El primer hilo que llega ejecuta la operación; los demás esperan y reciben el mismo
+ * resultado o la misma excepción. Una vez terminada, la siguiente llamada ejecuta de nuevo.
+ *
+ * @param <K> Tipo de la clave que identifica la operación
+ * @param <V> Tipo del resultado
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Ejecuta la operación o se une a la ejecución en curso para la misma clave.
+     *
+     * @param key Clave de la operación
+     * @param supplier Operación a ejecutar si no hay una en curso
+     * @return Resultado compartido de la operación
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Variante sin bloqueo de {@link #execute}: la operación retorna un future y los llamadores
+     * concurrentes reciben el mismo future en lugar de esperar. Comparte las ejecuciones en curso
+     * con {@link #execute}.
+     *
+     * @param key Clave de la operación
+     * @param supplier Operación asíncrona a iniciar si no hay una en curso
+     * @return Future compartido con el resultado de la operación
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<? extends CompletionStage<V>> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        executions.increment();
+        CompletionStage<V> stage;
+        try {
+            stage = supplier.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            return call;
+        }
+        stage.whenComplete((value, error) -> {
+            inFlight.remove(key, call);
+            if (error != null) {
+                call.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                call.complete(value);
+            }
+        });
+        return call;
+    }
+
+    /**
+     * @return Número de ejecuciones reales de la operación
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * @return Número de llamadas que se unieron a una ejecución en curso
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.tekton.backend.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias log-lineal, sin bloqueos y repartido en franjas (stripes).
+ *
+ * Los valores (en microsegundos) se agrupan por potencias de dos, cada una dividida en
+ * {@link #SUB_BUCKETS} / 2 rangos lineales, por lo que el error relativo de un percentil es como
+ * máximo 1/{@link #SUB_BUCKETS}. Cada hilo incrementa la franja que le corresponde por su id, con un
+ * {@code getAndIncrement} atómico y sin compartir líneas de caché con hilos de otras franjas.
+ * Las lecturas suman todas las franjas y son aproximadas frente a escrituras concurrentes.
+ */
+public class StripedLatencyHistogram {
+
+    /**
+     * Rangos lineales por debajo de {@code SUB_BUCKETS} µs y subdivisión de cada potencia de dos.
+     */
+    static final int SUB_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    /**
+     * Mayor valor representable (2^32 µs, unos 71 minutos); los valores mayores se acumulan en el último rango.
+     */
+    static final long MAX_VALUE = (1L << 32) - 1;
+
+    /**
+     * Número de rangos del histograma.
+     */
+    public static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    // Separación entre franjas para que no compartan línea de caché (8 longs = 64 bytes)
+    private static final int PADDING = 8;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts;
+
+    /**
+     * @param stripes Número de franjas; se redondea a la potencia de dos siguiente
+     */
+    public StripedLatencyHistogram(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripeMask = size - 1;
+        this.counts = new AtomicLongArray(size * (BUCKETS + PADDING));
+    }
+
+    /**
+     * Registra una latencia.
+     *
+     * @param micros Latencia en microsegundos; los valores negativos se registran como 0
+     */
+    public void record(long micros) {
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        counts.getAndIncrement(stripe * (BUCKETS + PADDING) + bucketIndex(micros));
+    }
+
+    /**
+     * Suma los contadores de todas las franjas en {@code target}, que debe tener {@link #BUCKETS} posiciones.
+     */
+    public void addTo(long[] target) {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int offset = stripe * (BUCKETS + PADDING);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                target[bucket] += counts.get(offset + bucket);
+            }
+        }
+    }
+
+    static int bucketIndex(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * @return Límite inferior (inclusivo) del rango, en microsegundos
+     */
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        return (long) (index - shift * HALF) << shift;
+    }
+
+    /**
+     * @return Límite superior (exclusivo) del rango, en microsegundos
+     */
+    static long bucketUpperBound(int index) {
+        return index + 1 < BUCKETS ? bucketLowerBound(index + 1) : MAX_VALUE + 1;
+    }
+
+    /**
+     * Calcula un percentil a partir de los contadores sumados con {@link #addTo(long[])}.
+     *
+     * @param counts Contadores por rango
+     * @param total Suma de los contadores
+     * @param percentile Percentil entre 0 y 100
+     * @return Punto medio del rango que contiene el percentil, en microsegundos, o 0 si no hay datos
+     */
+    public static long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                long lower = bucketLowerBound(bucket);
+                return lower + (bucketUpperBound(bucket) - 1 - lower) / 2;
+            }
+        }
+        return bucketLowerBound(counts.length - 1);
+    }
+}
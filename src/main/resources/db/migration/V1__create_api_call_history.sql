@@ -0,0 +1,21 @@
+-- Esquema inicial. Usa IF NOT EXISTS para adoptar bases creadas antes con ddl-auto: update
+-- (spring.flyway.baseline-on-migrate con baseline-version 0).
+
+CREATE TABLE IF NOT EXISTS api_call_history (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    timestamp         TIMESTAMP(6) NOT NULL,
+    endpoint          VARCHAR(500) NOT NULL,
+    method            VARCHAR(10)  NOT NULL,
+    request_body      TEXT,
+    response_body     TEXT,
+    status_code       INTEGER      NOT NULL,
+    execution_time_ms BIGINT,
+    error_message     TEXT
+);
+
+CREATE TABLE IF NOT EXISTS history_spool_checkpoint (
+    spool_id   VARCHAR(100) PRIMARY KEY,
+    segment    BIGINT       NOT NULL,
+    position   INTEGER      NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Índices para los filtros y el orden de /api/history y /api/history/cursor.
+
+-- Orden por defecto (timestamp DESC), rango de fechas y búsqueda keyset (timestamp, id)
+CREATE INDEX IF NOT EXISTS idx_api_call_history_timestamp_id
+    ON api_call_history (timestamp, id);
+
+-- Filtro por endpoint combinado con rango de fechas y orden por timestamp
+CREATE INDEX IF NOT EXISTS idx_api_call_history_endpoint_timestamp
+    ON api_call_history (endpoint, timestamp, id);
@@ -0,0 +1,11 @@
+-- Índice BRIN opcional sobre timestamp (placeholder history_brin_index).
+-- En una tabla append-only el timestamp crece con el orden físico de las filas, y el BRIN
+-- resume rangos de bloques en pocos KB: útil para rangos de fechas amplios sobre tablas muy grandes.
+DO $$
+BEGIN
+    IF '${history_brin_index}' = 'true' THEN
+        CREATE INDEX IF NOT EXISTS idx_api_call_history_timestamp_brin
+            ON api_call_history USING brin (timestamp);
+    END IF;
+END
+$$;
@@ -0,0 +1,74 @@
+-- Convierte api_call_history en una tabla particionada por rango de timestamp.
+-- Los datos existentes se copian a particiones mensuales; HistoryPartitionManager (si está habilitado)
+-- crea las particiones siguientes (por día o por mes) por adelantado y elimina las vencidas.
+-- La clave primaria incluye timestamp porque PostgreSQL exige la clave de partición en toda
+-- restricción única de una tabla particionada.
+-- El id usa una secuencia explícita: las columnas IDENTITY en tablas particionadas requieren PostgreSQL 17.
+
+CREATE SEQUENCE api_call_history_partitioned_id_seq AS BIGINT;
+
+CREATE TABLE api_call_history_partitioned (
+    id                BIGINT       NOT NULL DEFAULT nextval('api_call_history_partitioned_id_seq'),
+    timestamp         TIMESTAMP(6) NOT NULL,
+    endpoint          VARCHAR(500) NOT NULL,
+    method            VARCHAR(10)  NOT NULL,
+    request_body      TEXT,
+    response_body     TEXT,
+    status_code       INTEGER      NOT NULL,
+    execution_time_ms BIGINT,
+    error_message     TEXT,
+    CONSTRAINT api_call_history_partitioned_pkey PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE api_call_history_partitioned_id_seq OWNED BY api_call_history_partitioned.id;
+
+-- Recibe filas fuera de las particiones existentes (p. ej. relojes desfasados) para no perderlas
+CREATE TABLE api_call_history_default PARTITION OF api_call_history_partitioned DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE;
+    last_month  DATE;
+BEGIN
+    SELECT date_trunc('month', min(timestamp))::date, date_trunc('month', max(timestamp))::date
+      INTO month_start, last_month
+      FROM api_call_history;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF api_call_history_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'api_call_history_p' || to_char(month_start, 'YYYYMM'),
+                       month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END
+$$;
+
+INSERT INTO api_call_history_partitioned
+    (id, timestamp, endpoint, method, request_body, response_body, status_code, execution_time_ms, error_message)
+SELECT id, timestamp, endpoint, method, request_body, response_body, status_code, execution_time_ms, error_message
+  FROM api_call_history;
+
+SELECT setval('api_call_history_partitioned_id_seq',
+              COALESCE((SELECT max(id) FROM api_call_history), 0) + 1, false);
+
+DROP TABLE api_call_history;
+
+ALTER TABLE api_call_history_partitioned RENAME TO api_call_history;
+ALTER TABLE api_call_history RENAME CONSTRAINT api_call_history_partitioned_pkey TO api_call_history_pkey;
+ALTER SEQUENCE api_call_history_partitioned_id_seq RENAME TO api_call_history_id_seq;
+
+-- Los índices del padre se crean en cada partición, actual y futura
+CREATE INDEX idx_api_call_history_timestamp_id
+    ON api_call_history (timestamp, id);
+
+CREATE INDEX idx_api_call_history_endpoint_timestamp
+    ON api_call_history (endpoint, timestamp, id);
+
+DO $$
+BEGIN
+    IF '${history_brin_index}' = 'true' THEN
+        CREATE INDEX idx_api_call_history_timestamp_brin
+            ON api_call_history USING brin (timestamp);
+    END IF;
+END
+$$;
@@ -0,0 +1,35 @@
+-- Agregados por minuto y por hora del historial, por endpoint, método y status code.
+-- latency_histogram cuenta las llamadas por rango de execution_time_ms; los límites superiores
+-- (exclusivos) están en HistoryRollupService.LATENCY_BUCKETS_MS y el último rango no tiene límite.
+
+CREATE TABLE api_call_history_rollup_minute (
+    bucket_start       TIMESTAMP(6) NOT NULL,
+    endpoint           VARCHAR(500) NOT NULL,
+    method             VARCHAR(10)  NOT NULL,
+    status_code        INTEGER      NOT NULL,
+    call_count         BIGINT       NOT NULL,
+    error_count        BIGINT       NOT NULL,
+    total_execution_ms BIGINT       NOT NULL,
+    min_execution_ms   BIGINT,
+    max_execution_ms   BIGINT,
+    latency_histogram  BIGINT[]     NOT NULL,
+    CONSTRAINT api_call_history_rollup_minute_pkey PRIMARY KEY (bucket_start, endpoint, method, status_code)
+);
+
+CREATE TABLE api_call_history_rollup_hour (LIKE api_call_history_rollup_minute INCLUDING ALL);
+
+-- Filtro por endpoint en los paneles
+CREATE INDEX idx_api_call_history_rollup_minute_endpoint
+    ON api_call_history_rollup_minute (endpoint, bucket_start);
+
+CREATE INDEX idx_api_call_history_rollup_hour_endpoint
+    ON api_call_history_rollup_hour (endpoint, bucket_start);
+
+-- Marca de agua por granularidad: el historial anterior a rolled_up_to ya está agregado.
+-- La fila se bloquea (FOR UPDATE) durante cada agregación, lo que serializa varias instancias.
+CREATE TABLE history_rollup_checkpoint (
+    granularity  VARCHAR(10) PRIMARY KEY,
+    rolled_up_to TIMESTAMP(6)
+);
+
+INSERT INTO history_rollup_checkpoint (granularity, rolled_up_to) VALUES ('MINUTE', NULL), ('HOUR', NULL);
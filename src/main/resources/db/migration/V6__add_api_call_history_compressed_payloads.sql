@@ -0,0 +1,16 @@
+-- Payloads comprimidos por la aplicación (HistoryPayloadCodec). Un payload grande se guarda en
+-- *_body_compressed, con el id del algoritmo en el primer byte, y su columna de texto queda en null.
+-- *_body_size guarda el tamaño original para los listados; es null en las filas anteriores, donde
+-- se usa octet_length de la columna de texto.
+-- Las columnas nuevas admiten null y no tienen default, por lo que no se reescribe la tabla.
+
+ALTER TABLE api_call_history
+    ADD COLUMN request_body_compressed  BYTEA,
+    ADD COLUMN response_body_compressed BYTEA,
+    ADD COLUMN request_body_size        INTEGER,
+    ADD COLUMN response_body_size       INTEGER;
+
+-- Los valores ya vienen comprimidos: se guardan fuera de línea sin volver a comprimirlos en el TOAST
+ALTER TABLE api_call_history
+    ALTER COLUMN request_body_compressed SET STORAGE EXTERNAL,
+    ALTER COLUMN response_body_compressed SET STORAGE EXTERNAL;
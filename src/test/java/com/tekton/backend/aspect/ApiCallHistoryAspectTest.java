@@ -0,0 +1,186 @@
+package com.tekton.backend.aspect;
+
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.service.ApiCallHistoryService;
+import com.tekton.backend.service.LatencyStatsService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiCallHistoryAspectTest {
+
+    @Mock
+    private ApiCallHistoryService apiCallHistoryService;
+
+    @Mock
+    private LatencyStatsService latencyStatsService;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    private ApiCallHistoryAspect aspect;
+
+    private final CalculationRequest request = CalculationRequest.builder().num1(1.0).num2(2.0).build();
+
+    @BeforeEach
+    void setUp() {
+        aspect = new ApiCallHistoryAspect(apiCallHistoryService, latencyStatsService);
+        lenient().when(joinPoint.getArgs()).thenReturn(new Object[]{request});
+    }
+
+    @Test
+    void testLogApiCall_ReturnsResult_WhenHistoryIsRejected() throws Throwable {
+        // Given
+        ResponseEntity<String> response = ResponseEntity.ok("ok");
+        when(joinPoint.proceed()).thenReturn(response);
+        doThrow(new TaskRejectedException("executor saturado"))
+                .when(apiCallHistoryService).saveCapturedCall(any(), any(), any(), any(), any(), anyInt(), any(), any(), any());
+
+        // When
+        Object result = aspect.logApiCall(joinPoint, annotation("defaults"));
+
+        // Then
+        assertSame(response, result);
+        verify(apiCallHistoryService, times(1)).saveCapturedCall(any(), any(), any(), same(request), eq("ok"), anyInt(),
+                eq(200), anyLong(), isNull());
+        verify(latencyStatsService).record(anyString(), anyLong(), eq(false));
+    }
+
+    @Test
+    void testLogApiCall_PropagatesOriginalException_WhenHistoryIsRejected() throws Throwable {
+        // Given
+        IllegalStateException failure = new IllegalStateException("fallo");
+        when(joinPoint.proceed()).thenThrow(failure);
+        doThrow(new TaskRejectedException("executor saturado"))
+                .when(apiCallHistoryService).saveCapturedCall(any(), any(), any(), any(), any(), anyInt(), any(), any(), any());
+
+        // When & Then
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> aspect.logApiCall(joinPoint, annotation("defaults")));
+        assertSame(failure, thrown);
+        verify(apiCallHistoryService, times(1)).saveCapturedCall(any(), any(), any(), same(request), isNull(), anyInt(),
+                eq(500), anyLong(), eq("fallo"));
+        verify(latencyStatsService).record(anyString(), anyLong(), eq(true));
+    }
+
+    @Test
+    void testLogApiCall_SkipsSampledOutSuccess_WithoutSerializing() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok("ok"));
+
+        // When
+        aspect.logApiCall(joinPoint, annotation("neverSampled"));
+
+        // Then
+        verifyNoInteractions(apiCallHistoryService);
+        verify(joinPoint, never()).getArgs();
+        verify(latencyStatsService).record(anyString(), anyLong(), eq(false));
+    }
+
+    @Test
+    void testLogApiCall_AlwaysRecordsErrors_WhenSampledOut() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.badRequest().body("invalido"));
+
+        // When
+        aspect.logApiCall(joinPoint, annotation("neverSampled"));
+
+        // Then
+        verify(apiCallHistoryService).saveCapturedCall(any(), any(), any(), same(request), eq("invalido"), anyInt(),
+                eq(400), anyLong(), isNull());
+    }
+
+    @Test
+    void testLogApiCall_CapturesBodiesOnlyOnErrorOrSlow() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok("ok"));
+
+        // When
+        aspect.logApiCall(joinPoint, annotation("bodiesOnError"));
+
+        // Then
+        verify(apiCallHistoryService).saveCapturedCall(any(), any(), any(), isNull(), isNull(), anyInt(), eq(200),
+                anyLong(), isNull());
+        verify(joinPoint, never()).getArgs();
+    }
+
+    @Test
+    void testLogApiCall_PassesPayloadLimitToWriter() throws Throwable {
+        // Given
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok("ok"));
+
+        // When
+        aspect.logApiCall(joinPoint, annotation("truncated"));
+
+        // Then
+        verify(apiCallHistoryService).saveCapturedCall(any(), any(), any(), same(request), eq("ok"), eq(11), eq(200),
+                anyLong(), isNull());
+    }
+
+    @Test
+    void testLogApiCall_UsesGlobalConfiguration_WhenAttributesAreDefault() throws Throwable {
+        // Given
+        ReflectionTestUtils.setField(aspect, "sampleRate", 0.0);
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok("ok"));
+
+        // When
+        aspect.logApiCall(joinPoint, annotation("defaults"));
+
+        // Then
+        verifyNoInteractions(apiCallHistoryService);
+    }
+
+    @Test
+    void testLogApiCall_RecordsAsyncResultOnCompletion() throws Throwable {
+        // Given
+        CompletableFuture<ResponseEntity<String>> pending = new CompletableFuture<>();
+        when(joinPoint.proceed()).thenReturn(pending);
+
+        // When
+        CompletableFuture<?> result = (CompletableFuture<?>) aspect.logApiCall(joinPoint, annotation("defaults"));
+        verifyNoInteractions(apiCallHistoryService);
+        pending.complete(ResponseEntity.ok("ok"));
+
+        // Then
+        assertEquals(ResponseEntity.ok("ok"), result.join());
+        verify(apiCallHistoryService).saveCapturedCall(any(), any(), any(), same(request), eq("ok"), anyInt(), eq(200),
+                anyLong(), isNull());
+        verify(latencyStatsService).record(anyString(), anyLong(), eq(false));
+    }
+
+    private static LogApiCall annotation(String method) throws NoSuchMethodException {
+        return Endpoints.class.getDeclaredMethod(method).getAnnotation(LogApiCall.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Endpoints {
+
+        @LogApiCall
+        void defaults() {
+        }
+
+        @LogApiCall(sampleRate = 0, slowThresholdMs = 0)
+        void neverSampled() {
+        }
+
+        @LogApiCall(captureBodies = LogApiCall.Capture.ON_ERROR_OR_SLOW, slowThresholdMs = 0)
+        void bodiesOnError() {
+        }
+
+        @LogApiCall(maxPayloadBytes = 11)
+        void truncated() {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.tekton.backend.aspect;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapturePolicyTest {
+
+    @Test
+    void testShouldRecord_ErrorsAndSlowCallsBypassSampling() {
+        CapturePolicy policy = new CapturePolicy(0, LogApiCall.Capture.ALWAYS, 1_000_000, 0, true);
+
+        assertTrue(policy.shouldRecord(true, false));
+        assertTrue(policy.shouldRecord(false, true));
+        assertFalse(policy.shouldRecord(false, false));
+        assertTrue(policy.isSlow(2_000_000));
+        assertFalse(policy.isSlow(999_999));
+    }
+}
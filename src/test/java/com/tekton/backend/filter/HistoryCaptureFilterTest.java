@@ -0,0 +1,134 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.aspect.LogApiCall;
+import com.tekton.backend.service.HistoryPayloadCodec;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCaptureFilterTest {
+
+    private final HistoryCaptureFilter filter = new HistoryCaptureFilter(handlerMapping());
+
+    @Test
+    void testDoFilter_HandsWireBytesToListener() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("{\"num1\":5.0,\"num2\":5.0}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String[]> captured = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, response, (req, res) -> {
+            req.getInputStream().readAllBytes();
+            WireCapture.of((HttpServletRequest) req).onComplete(0, true,
+                    (requestBody, responseBody) -> captured.set(new String[]{utf8(requestBody), utf8(responseBody)}));
+            res.getOutputStream().write("{\"result\":11.0}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        // Then
+        assertEquals("{\"result\":11.0}", response.getContentAsString());
+        assertArrayEquals(new String[]{"{\"num1\":5.0,\"num2\":5.0}", "{\"result\":11.0}"}, captured.get());
+    }
+
+    @Test
+    void testDoFilter_TruncatesToEndpointLimit() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("{\"num1\":5.0,\"num2\":5.0}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String[]> captured = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, response, (req, res) -> {
+            req.getReader().lines().count();
+            WireCapture.of((HttpServletRequest) req).onComplete(22, false,
+                    (requestBody, responseBody) -> captured.set(new String[]{utf8(requestBody), utf8(responseBody)}));
+            res.getOutputStream().write("{\"result\":11.0}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        // Then
+        assertEquals("{\"result\":11.0}", response.getContentAsString());
+        // El límite de 22 bytes incluye el sufijo
+        assertArrayEquals(new String[]{"{\"num1\":5" + HistoryPayloadCodec.TRUNCATED_SUFFIX, null}, captured.get());
+    }
+
+    @Test
+    void testDoFilter_StopsCopyingRequestAtGlobalLimit() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(filter, "maxPayloadBytes", 4 + HistoryPayloadCodec.TRUNCATED_SUFFIX.length());
+        MockHttpServletRequest request = request("{\"num1\":5.0,\"num2\":5.0}");
+        AtomicReference<String> captured = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            assertEquals("{\"num1\":5.0,\"num2\":5.0}", new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            WireCapture.of((HttpServletRequest) req).onComplete(0, false,
+                    (requestBody, responseBody) -> captured.set(utf8(requestBody)));
+        });
+
+        // Then
+        assertEquals("{\"nu" + HistoryPayloadCodec.TRUNCATED_SUFFIX, captured.get());
+    }
+
+    @Test
+    void testDoFilter_SkipsRequestsWithoutLogApiCall() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/history");
+        AtomicReference<Object> attribute = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            attribute.set(WireCapture.of((HttpServletRequest) req));
+            assertSame(request, req);
+        });
+
+        // Then
+        assertNull(attribute.get());
+    }
+
+    private static ObjectProvider<RequestMappingHandlerMapping> handlerMapping() {
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+        Endpoints endpoints = new Endpoints();
+        mapping.registerMapping(RequestMappingInfo.paths("/api/calculate").methods(RequestMethod.POST).build(),
+                endpoints, ReflectionUtils.findMethod(Endpoints.class, "calculate"));
+        mapping.registerMapping(RequestMappingInfo.paths("/api/history").methods(RequestMethod.GET).build(),
+                endpoints, ReflectionUtils.findMethod(Endpoints.class, "history"));
+        return new StaticListableBeanFactory(Map.of("requestMappingHandlerMapping", mapping))
+                .getBeanProvider(RequestMappingHandlerMapping.class);
+    }
+
+    static class Endpoints {
+
+        @LogApiCall
+        void calculate() {
+        }
+
+        void history() {
+        }
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculate");
+        request.setContentType("application/json");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String utf8(byte[] bytes) {
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tekton.backend.filter;
+
+import com.tekton.backend.util.ServerTiming;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+
+    @Test
+    void testDoFilter_AddsStageBreakdownAfterFlush() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, (req, res) -> {
+            long start = ServerTiming.start();
+            ServerTiming.record(ServerTiming.Stage.PERCENTAGE, start, "cache");
+            ServerTiming.record(ServerTiming.Stage.CALCULATION, ServerTiming.start());
+            ServerTiming.current().startSerialization();
+            res.getOutputStream().write("{\"result\":11.0}".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            ServerTiming.record(ServerTiming.Stage.HISTORY_ENQUEUE, ServerTiming.start());
+        });
+
+        // Then
+        String header = response.getHeader(ServerTiming.HEADER);
+        assertNotNull(header);
+        assertTrue(header.matches("pct;dur=\\d+\\.\\d{3};desc=\"cache\", calc;dur=\\d+\\.\\d{3}, "
+                + "hist;dur=\\d+\\.\\d{3}, ser;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), header);
+        assertEquals("{\"result\":11.0}", response.getContentAsString());
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void testDoFilter_PassesFlushesOnceResponseExceedsBuffer() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculate/batch");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(16);
+
+        // When
+        filter.doFilter(request, response, (req, res) -> {
+            res.getOutputStream().write("{\"result\":11.0}".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            assertFalse(res.isCommitted());
+            res.getOutputStream().write("\n".getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            assertTrue(res.isCommitted());
+        });
+
+        // Then
+        assertEquals("{\"result\":11.0}\n", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilter_SkipsStreamingExportAndOtherPaths() throws Exception {
+        for (String uri : new String[]{"/api/history/export", "/api/historyx"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response,
+                    (req, res) -> assertEquals(ServerTiming.INACTIVE, ServerTiming.start()));
+            assertNull(response.getHeader(ServerTiming.HEADER), uri);
+        }
+    }
+
+    @Test
+    void testDoFilter_SkipsOtherPaths() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stats/latency");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, (req, res) -> assertEquals(ServerTiming.INACTIVE, ServerTiming.start()));
+
+        // Then
+        assertNull(response.getHeader(ServerTiming.HEADER));
+    }
+}
@@ -0,0 +1,190 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.dto.ApiCallHistoryResponse;
+import com.tekton.backend.dto.ApiCallHistorySummary;
+import com.tekton.backend.dto.CursorPage;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.exception.HistoryNotFoundException;
+import com.tekton.backend.exception.InvalidCursorException;
+import com.tekton.backend.exception.InvalidSortFieldException;
+import com.tekton.backend.repository.ApiCallHistoryRepository;
+import com.tekton.backend.util.HistoryCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiCallHistoryServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private ApiCallHistoryRepository repository;
+
+    @Mock
+    private ApiCallHistoryWriter historyWriter;
+
+    @Spy
+    private HistoryPayloadCodec payloadCodec = new HistoryPayloadCodec(new JacksonConfig().objectMapper());
+
+    @InjectMocks
+    private ApiCallHistoryService apiCallHistoryService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetHistoryByCursor_FirstPage_ReturnsNextCursorWithoutPrevious() {
+        // Given: se piden 2 elementos y el repositorio devuelve 3 (hay más)
+        when(repository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(List.of(history(3L, 3), history(2L, 2), history(1L, 1)));
+
+        // When
+        CursorPage<ApiCallHistorySummary> page = apiCallHistoryService.getHistoryByCursor(null, null, null, null, 2);
+
+        // Then
+        verify(repository).findSummaries(any(Specification.class),
+                eq(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"))), eq(3));
+        assertEquals(List.of(3L, 2L), ids(page));
+        assertTrue(page.isHasNext());
+        assertFalse(page.isHasPrevious());
+        assertNull(page.getPreviousCursor());
+        assertEquals(HistoryCursor.next(BASE.plusSeconds(2), 2L), HistoryCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetHistoryByCursor_LastPage_HasPreviousButNoNext() {
+        // Given
+        when(repository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(List.of(history(1L, 1)));
+        String cursor = HistoryCursor.next(BASE.plusSeconds(2), 2L).encode();
+
+        // When
+        CursorPage<ApiCallHistorySummary> page = apiCallHistoryService.getHistoryByCursor(null, null, null, cursor, 2);
+
+        // Then
+        assertEquals(List.of(1L), ids(page));
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        assertTrue(page.isHasPrevious());
+        assertEquals(HistoryCursor.previous(BASE.plusSeconds(1), 1L), HistoryCursor.decode(page.getPreviousCursor()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetHistoryByCursor_PreviousPage_KeepsNewestFirstOrder() {
+        // Given: hacia atrás el repositorio devuelve en orden ascendente
+        when(repository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+                .thenReturn(List.of(history(4L, 4), history(5L, 5), history(6L, 6)));
+        String cursor = HistoryCursor.previous(BASE.plusSeconds(3), 3L).encode();
+
+        // When
+        CursorPage<ApiCallHistorySummary> page = apiCallHistoryService.getHistoryByCursor(null, null, null, cursor, 2);
+
+        // Then
+        assertEquals(List.of(5L, 4L), ids(page));
+        assertTrue(page.isHasPrevious());
+        assertTrue(page.isHasNext());
+        assertEquals(HistoryCursor.next(BASE.plusSeconds(4), 4L), HistoryCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetHistoryByCursor_ThrowsException_WhenCursorInvalid() {
+        assertThrows(InvalidCursorException.class,
+                () -> apiCallHistoryService.getHistoryByCursor(null, null, null, "invalido", 10));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testGetHistoryById_ReturnsFullPayloads() {
+        // Given
+        when(repository.findById(7L)).thenReturn(Optional.of(ApiCallHistory.builder()
+                .id(7L)
+                .timestamp(BASE)
+                .endpoint("/api/calculate")
+                .method("POST")
+                .requestBody("{\"num1\":5,\"num2\":5}")
+                .responseBody("{\"result\":11.0}")
+                .statusCode(200)
+                .build()));
+
+        // When
+        ApiCallHistoryResponse response = apiCallHistoryService.getHistoryById(7L);
+
+        // Then
+        assertEquals(7L, response.getId());
+        assertEquals("{\"num1\":5,\"num2\":5}", response.getRequestBody());
+        assertEquals("{\"result\":11.0}", response.getResponseBody());
+    }
+
+    @Test
+    void testGetHistoryById_DecompressesStoredPayload() {
+        // Given
+        ReflectionTestUtils.setField(payloadCodec, "enabled", true);
+        String body = "[" + "{\"num1\":10.0,\"num2\":20.0},".repeat(50) + "{\"num1\":1.0,\"num2\":2.0}]";
+        ApiCallHistory stored = ApiCallHistory.builder().id(8L).timestamp(BASE).requestBody(body).statusCode(200).build();
+        payloadCodec.compress(stored);
+        assertNull(stored.getRequestBody());
+        when(repository.findById(8L)).thenReturn(Optional.of(stored));
+
+        // When
+        ApiCallHistoryResponse response = apiCallHistoryService.getHistoryById(8L);
+
+        // Then
+        assertEquals(body, response.getRequestBody());
+    }
+
+    @Test
+    void testGetHistoryById_ThrowsException_WhenNotFound() {
+        when(repository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(HistoryNotFoundException.class, () -> apiCallHistoryService.getHistoryById(99L));
+    }
+
+    @Test
+    void testIndexedSort_AddsIndexTieBreakers() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "timestamp", "id"),
+                ApiCallHistoryService.indexedSort("timestamp", Sort.Direction.DESC));
+        assertEquals(Sort.by(Sort.Direction.ASC, "endpoint", "timestamp", "id"),
+                ApiCallHistoryService.indexedSort("endpoint", Sort.Direction.ASC));
+    }
+
+    @Test
+    void testIndexedSort_ThrowsException_WhenFieldHasNoIndex() {
+        assertThrows(InvalidSortFieldException.class,
+                () -> ApiCallHistoryService.indexedSort("responseBody", Sort.Direction.DESC));
+        assertThrows(InvalidSortFieldException.class,
+                () -> ApiCallHistoryService.indexedSort("executionTimeMs", Sort.Direction.DESC));
+    }
+
+    private static ApiCallHistorySummary history(Long id, int secondsAfterBase) {
+        return ApiCallHistorySummary.builder()
+                .id(id)
+                .timestamp(BASE.plusSeconds(secondsAfterBase))
+                .endpoint("/api/calculate")
+                .method("POST")
+                .statusCode(200)
+                .hasError(false)
+                .build();
+    }
+
+    private static List<Long> ids(CursorPage<ApiCallHistorySummary> page) {
+        return page.getContent().stream().map(ApiCallHistorySummary::getId).toList();
+    }
+}
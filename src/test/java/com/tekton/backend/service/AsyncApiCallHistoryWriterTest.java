@@ -0,0 +1,73 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.AsyncConfig;
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.repository.ApiCallHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncApiCallHistoryWriterTest {
+
+    @Mock
+    private ApiCallHistoryRepository repository;
+
+    @Mock
+    private HistoryOverloadHandler overloadHandler;
+
+    private final SimpleAsyncTaskExecutor virtualExecutor = AsyncConfig.virtualExecutor("api-history-", 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        virtualExecutor.close();
+    }
+
+    @Test
+    void testWrite_VirtualThreads_WaitsForPermitAndDelegatesToOverloadHandlerWhenFull() throws InterruptedException {
+        // Given: 1 tarea usando JDBC y 1 en espera como máximo
+        AsyncApiCallHistoryWriter writer = new AsyncApiCallHistoryWriter(repository, virtualExecutor, overloadHandler,
+                new HistoryPayloadCodec(new JacksonConfig().objectMapper()), new HistoryWriteLagRecorder(new SimpleMeterRegistry()));
+
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch savedAll = new CountDownLatch(2);
+        when(repository.save(any(ApiCallHistory.class))).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().isVirtual());
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            savedAll.countDown();
+            return invocation.getArgument(0);
+        });
+        ApiCallHistory first = ApiCallHistory.builder().endpoint("/api/calculate").build();
+        ApiCallHistory second = ApiCallHistory.builder().endpoint("/api/calculate").build();
+        ApiCallHistory third = ApiCallHistory.builder().endpoint("/api/calculate").build();
+
+        // When
+        writer.write(first);
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        writer.write(second);
+        writer.write(third);
+
+        // Then: la segunda espera su turno y solo la tercera se rechaza
+        assertEquals(1, writer.getActiveCount());
+        assertEquals(1, writer.getQueueDepth());
+        verify(overloadHandler, never()).onRejected(same(second));
+        verify(overloadHandler).onRejected(same(third));
+        release.countDown();
+        assertTrue(savedAll.await(5, TimeUnit.SECONDS));
+        verify(repository, times(2)).save(any(ApiCallHistory.class));
+    }
+}
@@ -0,0 +1,154 @@
+package com.tekton.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.dto.BatchCalculationSummary;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.dto.CalculationResponse;
+import com.tekton.backend.exception.InvalidBatchException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCalculationServiceTest {
+
+    @Mock
+    private PercentageCacheService percentageCacheService;
+
+    @Mock
+    private RatePercentageService ratePercentageService;
+
+    @Mock
+    private ApiCallHistoryService apiCallHistoryService;
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private BatchCalculationService batchCalculationService;
+
+    @BeforeEach
+    void setUp() {
+        batchCalculationService = new BatchCalculationService(
+                new CalculationService(percentageCacheService, ratePercentageService),
+                apiCallHistoryService,
+                objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(batchCalculationService, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(batchCalculationService, "flushEvery", 100);
+    }
+
+    @Test
+    void testCalculateBatch_FetchesPercentageOncePerBatch() {
+        // Given
+        when(percentageCacheService.getPercentage()).thenReturn(10.0);
+        List<CalculationRequest> requests = List.of(
+                CalculationRequest.builder().num1(10.0).num2(20.0).build(),
+                CalculationRequest.builder().num1(1.0).num2(1.0).build());
+
+        // When
+        List<CalculationResponse> responses = batchCalculationService.calculateBatch(requests);
+
+        // Then
+        assertEquals(2, responses.size());
+        assertEquals(33.0, responses.get(0).getResult(), 0.01);
+        assertEquals(2.2, responses.get(1).getResult(), 0.01);
+        verify(percentageCacheService, times(1)).getPercentage();
+    }
+
+    @Test
+    void testCalculateBatch_LoadsAllRateKeysAtOnce() {
+        // Given
+        when(ratePercentageService.getPercentages(Set.of("retail", "wholesale")))
+                .thenReturn(Map.of("retail", 10.0, "wholesale", 20.0));
+        List<CalculationRequest> requests = List.of(
+                CalculationRequest.builder().num1(10.0).num2(20.0).rateKey("retail").build(),
+                CalculationRequest.builder().num1(10.0).num2(20.0).rateKey("wholesale").build(),
+                CalculationRequest.builder().num1(1.0).num2(1.0).rateKey("retail").build());
+
+        // When
+        List<CalculationResponse> responses = batchCalculationService.calculateBatch(requests);
+
+        // Then
+        assertEquals(33.0, responses.get(0).getResult(), 0.01);
+        assertEquals(36.0, responses.get(1).getResult(), 0.01);
+        assertEquals(2.2, responses.get(2).getResult(), 0.01);
+        verify(ratePercentageService, times(1)).getPercentages(any());
+        verifyNoInteractions(percentageCacheService);
+    }
+
+    @Test
+    void testCalculateBatch_ThrowsException_WhenBatchIsEmptyOrTooLarge() {
+        CalculationRequest request = CalculationRequest.builder().num1(1.0).num2(1.0).build();
+
+        assertThrows(InvalidBatchException.class, () -> batchCalculationService.calculateBatch(Collections.emptyList()));
+        assertThrows(InvalidBatchException.class,
+                () -> batchCalculationService.calculateBatch(List.of(request, request, request, request)));
+        verifyNoInteractions(percentageCacheService);
+    }
+
+    @Test
+    void testCalculateNdjson_StreamsResultsAndReportsInvalidLines() throws Exception {
+        // Given
+        String body = "{\"num1\":10,\"num2\":20}\n{\"num2\":5}\n\n{\"num1\":1,\"num2\":1}\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        BatchCalculationSummary summary = batchCalculationService.calculateNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, 10.0,
+                LocalDateTime.now(), "/api/calculate/batch", "POST");
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(33.0, objectMapper.readTree(lines[0]).get("result").asDouble(), 0.01);
+        JsonNode error = objectMapper.readTree(lines[1]);
+        assertEquals(400, error.get("status").asInt());
+        assertEquals("1", error.get("details").get("index").asText());
+        assertEquals("num1 es requerido", error.get("details").get("num1").asText());
+        assertEquals(2.2, objectMapper.readTree(lines[2]).get("result").asDouble(), 0.01);
+
+        assertEquals(3, summary.getItems());
+        assertEquals(2, summary.getProcessed());
+        assertEquals(1, summary.getErrors());
+        verify(apiCallHistoryService, times(1)).saveHistory(any(), eq("/api/calculate/batch"), eq("POST"),
+                anyString(), anyString(), eq(200), anyLong(), isNull());
+    }
+
+    @Test
+    void testCalculateNdjson_StopsAtMaxBatchSize() throws Exception {
+        // Given
+        String line = "{\"num1\":1,\"num2\":1}\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        BatchCalculationSummary summary = batchCalculationService.calculateNdjson(
+                new ByteArrayInputStream(line.repeat(5).getBytes(StandardCharsets.UTF_8)), output, 0.0,
+                LocalDateTime.now(), "/api/calculate/batch", "POST");
+
+        // Then
+        assertEquals(3, summary.getItems());
+        assertEquals(3, summary.getProcessed());
+        assertEquals(1, summary.getErrors());
+        assertEquals(4, output.toString(StandardCharsets.UTF_8).split("\n").length);
+        verify(apiCallHistoryService, times(1)).saveHistory(any(), anyString(), anyString(),
+                anyString(), anyString(), eq(400), anyLong(), contains("tamaño máximo"));
+    }
+}
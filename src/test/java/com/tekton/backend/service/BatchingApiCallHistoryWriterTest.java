@@ -0,0 +1,132 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.entity.ApiCallHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingApiCallHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BatchingApiCallHistoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new BatchingApiCallHistoryWriter(
+                new ApiCallHistoryBatchInserter(jdbcTemplate, new HistoryPayloadCodec(new JacksonConfig().objectMapper())),
+                new TransactionTemplate(transactionManager),
+                new HistoryWriteLagRecorder(meterRegistry),
+                meterRegistry);
+        ReflectionTestUtils.setField(writer, "batchSize", 3);
+        ReflectionTestUtils.setField(writer, "lingerMs", 50L);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void testWrite_FlushesInBatchesBySizeAndLinger() throws Exception {
+        // Given
+        List<Integer> batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<ApiCallHistory>>any()))
+                .thenAnswer(invocation -> {
+                    batchSizes.add(invocation.<Collection<?>>getArgument(1).size());
+                    return new int[0][0];
+                });
+        writer.start();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            writer.write(history());
+        }
+        writer.stop();
+
+        // Then
+        assertEquals(5, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 3));
+        assertEquals(5, writer.getWrittenCount());
+        assertEquals(0, writer.getFailedCount());
+        assertEquals(batchSizes.size(), writer.getFlushCount());
+        assertEquals(batchSizes.size(), meterRegistry.get("history.batch.flush").timer().count());
+        assertEquals(5, meterRegistry.get("history.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testWrite_DropsWhenQueueIsFull() {
+        // Given - el hilo de escritura no se inicia para que la cola se llene
+        ReflectionTestUtils.setField(writer, "queue", new ArrayBlockingQueue<ApiCallHistory>(2));
+        ReflectionTestUtils.setField(writer, "flusher", new Thread(() -> { }));
+
+        // When
+        writer.write(history());
+        writer.write(history());
+        writer.write(history());
+
+        // Then
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(1, writer.getDroppedCount());
+    }
+
+    @Test
+    void testFlush_CountsFailedRecords_WhenInsertFails() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<ApiCallHistory>>any()))
+                .thenThrow(new RuntimeException("database down"));
+        ReflectionTestUtils.setField(writer, "flusher", new Thread(() -> { }));
+        ReflectionTestUtils.setField(writer, "queue", new ArrayBlockingQueue<ApiCallHistory>(2));
+
+        // When
+        writer.flush(List.of(history(), history()));
+
+        // Then
+        assertEquals(2, writer.getFailedCount());
+        assertEquals(0, writer.getWrittenCount());
+        assertEquals(1, writer.getFlushCount());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyCollection(), eq(2), ArgumentMatchers.<ParameterizedPreparedStatementSetter<ApiCallHistory>>any());
+        assertEquals(ApiCallHistoryBatchInserter.INSERT_SQL, sql.getValue());
+    }
+
+    private ApiCallHistory history() {
+        return ApiCallHistory.builder()
+                .timestamp(LocalDateTime.now())
+                .endpoint("/api/calculate")
+                .method("POST")
+                .statusCode(200)
+                .executionTimeMs(5L)
+                .build();
+    }
+}
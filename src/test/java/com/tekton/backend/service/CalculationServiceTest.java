@@ -10,6 +10,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -90,4 +92,25 @@ class CalculationServiceTest {
         assertEquals(30.0, response.getResult(), 0.01); // (30 * 1.0)
         assertEquals(0.0, response.getPercentage());
     }
+
+    @Test
+    void testCalculateBatch_UsesSinglePercentageLookup() {
+        // Given
+        List<CalculationRequest> requests = List.of(
+                CalculationRequest.builder().num1(10.0).num2(20.0).build(),
+                CalculationRequest.builder().num1(5.0).num2(5.0).build(),
+                CalculationRequest.builder().num1(0.0).num2(0.0).build());
+        when(percentageCacheService.getPercentage()).thenReturn(10.0);
+
+        // When
+        List<CalculationResponse> responses = calculationService.calculateBatch(requests);
+
+        // Then
+        assertEquals(3, responses.size());
+        assertEquals(33.0, responses.get(0).getResult(), 0.01);
+        assertEquals(11.0, responses.get(1).getResult(), 0.01);
+        assertEquals(0.0, responses.get(2).getResult(), 0.01);
+        assertEquals(responses.get(0).getTimestamp(), responses.get(2).getTimestamp());
+        verify(percentageCacheService, times(1)).getPercentage();
+    }
 }
@@ -1,10 +1,15 @@
 package com.tekton.backend.service;
 
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.util.CircuitBreaker;
+import com.tekton.backend.util.ConnectionLimitingInterceptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +17,14 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -22,12 +35,47 @@ class ExternalPercentageServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Spy
+    private CircuitBreaker percentageCircuitBreaker = CircuitBreaker.builder()
+            .name("test")
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(100)
+            .slowCallThresholdMs(10000)
+            .openDurationMs(60000)
+            .halfOpenPermittedCalls(1)
+            .build();
+
+    @Mock
+    private HttpClient percentageHttpClient;
+
+    @Mock
+    private HttpResponse<String> ratesResponse;
+
     @InjectMocks
     private ExternalPercentageService externalPercentageService;
 
+    private final CircuitBreaker ratesCircuitBreaker = CircuitBreaker.builder()
+            .name("rates-test")
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(100)
+            .slowCallThresholdMs(10000)
+            .openDurationMs(60000)
+            .halfOpenPermittedCalls(1)
+            .build();
+
+    private final ConnectionLimitingInterceptor connectionPool = new ConnectionLimitingInterceptor(1, 50, 300);
+
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(externalPercentageService, "serviceUrl", "http://localhost:8081/api/percentage");
+        ReflectionTestUtils.setField(externalPercentageService, "ratesUrl", "http://localhost:8081/api/percentages");
+        ReflectionTestUtils.setField(externalPercentageService, "ratesCircuitBreaker", ratesCircuitBreaker);
+        ReflectionTestUtils.setField(externalPercentageService, "objectMapper", new JacksonConfig().objectMapper());
+        ReflectionTestUtils.setField(externalPercentageService, "percentageConnectionPool", connectionPool);
     }
 
     @Test
@@ -83,4 +131,95 @@ class ExternalPercentageServiceTest {
             externalPercentageService.getPercentage();
         });
     }
+
+    @Test
+    void testGetPercentage_RejectsImmediately_WhenCircuitOpen() {
+        // Given
+        when(restTemplate.getForEntity(anyString(), eq(Double.class)))
+                .thenThrow(new RestClientException("Connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RestClientException.class, () -> externalPercentageService.getPercentage());
+        }
+
+        // When & Then
+        assertEquals(CircuitBreaker.State.OPEN, externalPercentageService.getCircuitState());
+        assertThrows(CircuitBreaker.CallNotPermittedException.class, () -> externalPercentageService.getPercentage());
+        verify(restTemplate, times(4)).getForEntity(anyString(), eq(Double.class));
+    }
+
+    @Test
+    void testGetPercentagesAsync_SendsKeysInGroups() {
+        // Given
+        ReflectionTestUtils.setField(externalPercentageService, "maxKeysPerRequest", 2);
+        when(ratesResponse.statusCode()).thenReturn(200);
+        when(ratesResponse.body()).thenReturn("{\"a\": 10.0, \"b\": 12.5}", "{\"c\": 15.0}");
+        when(percentageHttpClient.sendAsync(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<String>>any()))
+                .thenReturn(CompletableFuture.completedFuture(ratesResponse));
+
+        // When
+        Map<String, Double> result = externalPercentageService.getPercentagesAsync(List.of("a", "b", "c")).join();
+
+        // Then
+        assertEquals(Map.of("a", 10.0, "b", 12.5, "c", 15.0), result);
+        verify(percentageHttpClient, times(2)).sendAsync(any(HttpRequest.class), any());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testGetPercentagesAsync_FailuresDoNotOpenGlobalCircuit() {
+        // Given
+        when(ratesResponse.statusCode()).thenReturn(500);
+        when(percentageHttpClient.sendAsync(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<String>>any()))
+                .thenReturn(CompletableFuture.completedFuture(ratesResponse));
+        for (int i = 0; i < 4; i++) {
+            CompletionException failed = assertThrows(CompletionException.class,
+                    () -> externalPercentageService.getPercentagesAsync(List.of("a")).join());
+            assertInstanceOf(RestClientException.class, failed.getCause());
+        }
+
+        // When & Then
+        assertEquals(CircuitBreaker.State.OPEN, ratesCircuitBreaker.getState());
+        assertEquals(CircuitBreaker.State.CLOSED, externalPercentageService.getCircuitState());
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> externalPercentageService.getPercentagesAsync(List.of("a")).join());
+        assertInstanceOf(CircuitBreaker.CallNotPermittedException.class, rejected.getCause());
+    }
+
+    @Test
+    void testGetPercentageAsync_FailsWhenConnectionPoolIsExhausted() {
+        // Given: la única conexión está ocupada por una llamada sin respuesta
+        when(percentageHttpClient.sendAsync(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<String>>any()))
+                .thenReturn(new CompletableFuture<>());
+        externalPercentageService.getPercentageAsync();
+
+        // When
+        CompletionException failed = assertThrows(CompletionException.class,
+                () -> externalPercentageService.getPercentageAsync().join());
+
+        // Then: falla tras la espera por conexión, sin llegar al HttpClient, y cuenta para el circuito
+        assertInstanceOf(RestClientException.class, failed.getCause());
+        assertTrue(failed.getCause().getMessage().contains("Pool de conexiones agotado"));
+        assertEquals(1, connectionPool.getAcquireTimeoutCount());
+        verify(percentageHttpClient, times(1)).sendAsync(any(HttpRequest.class), any());
+        verify(percentageCircuitBreaker).onResult(eq(true), anyLong());
+    }
+
+    @Test
+    void testGetPercentageAsync_FailsAndReleasesConnectionAfterTotalDeadline() {
+        // Given
+        CompletableFuture<HttpResponse<String>> pending = new CompletableFuture<>();
+        when(percentageHttpClient.sendAsync(any(HttpRequest.class), ArgumentMatchers.<HttpResponse.BodyHandler<String>>any()))
+                .thenReturn(pending);
+
+        // When
+        CompletionException failed = assertThrows(CompletionException.class,
+                () -> externalPercentageService.getPercentageAsync().join());
+
+        // Then: la llamada en curso se cancela y la conexión queda libre
+        assertInstanceOf(RestClientException.class, failed.getCause());
+        assertTrue(failed.getCause().getMessage().contains("Deadline total de 300ms"));
+        assertTrue(pending.isCancelled());
+        assertEquals(0, connectionPool.getActiveConnections());
+        verify(percentageCircuitBreaker).onResult(eq(true), anyLong());
+    }
 }
@@ -0,0 +1,143 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private HistoryExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HistoryExportService(jdbcTemplate, transactionManager, new JacksonConfig().objectMapper(),
+                new HistoryPayloadCodec(new JacksonConfig().objectMapper()));
+        ReflectionTestUtils.setField(service, "fetchSize", 500);
+    }
+
+    @Test
+    void testExport_WritesOneJsonObjectPerLine() throws Exception {
+        // Given
+        streamRows(2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long rows = service.export(HistoryExportService.Format.NDJSON, null, null, null, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":7,\"timestamp\":\"2026-10-18T10:00:00\",\"endpoint\":\"/api/calculate\""));
+    }
+
+    @Test
+    void testExport_EscapesCsvFields() throws Exception {
+        // Given
+        streamRows(1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        service.export(HistoryExportService.Format.CSV, null, null, null, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,timestamp,endpoint,method,statusCode,executionTimeMs,requestBody,responseBody,errorMessage", lines[0]);
+        assertEquals("7,2026-10-18T10:00:00,/api/calculate,POST,200,3,\"{\"\"num1\"\":5.0,\"\"num2\"\":5.0}\",,", lines[1]);
+    }
+
+    @Test
+    void testExport_UsesCursorWithFetchSizeAndHalfOpenDateRange() throws Exception {
+        // Given
+        streamRows(0);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+
+        // When
+        service.export(HistoryExportService.Format.NDJSON, "/api/calculate",
+                LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 18), new ByteArrayOutputStream());
+
+        // Then
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        creator.getValue().createPreparedStatement(connection);
+        verify(connection).prepareStatement(contains("WHERE endpoint = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp, id"),
+                eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(statement).setFetchSize(500);
+        verify(statement).setObject(3, Timestamp.valueOf("2026-10-19 00:00:00"));
+    }
+
+    @Test
+    void testExport_PropagatesClientDisconnect() throws Exception {
+        // Given
+        streamRows(1);
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        assertThrows(IOException.class, () -> service.export(HistoryExportService.Format.CSV, null, null, null, closed));
+    }
+
+    private void streamRows(int count) throws Exception {
+        if (count > 0) {
+            when(resultSet.getLong("id")).thenReturn(7L);
+            when(resultSet.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf("2026-10-18 10:00:00"));
+            when(resultSet.getString("endpoint")).thenReturn("/api/calculate");
+            when(resultSet.getString("method")).thenReturn("POST");
+            when(resultSet.getString("request_body")).thenReturn("{\"num1\":5.0,\"num2\":5.0}");
+            when(resultSet.getInt("status_code")).thenReturn(200);
+            when(resultSet.getObject("execution_time_ms", Long.class)).thenReturn(3L);
+        }
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < count; i++) {
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,186 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.entity.ApiCallHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HistoryOverloadHandlerTest {
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void testOnRejected_Drop_DiscardsAndCounts() throws Exception {
+        // Given
+        HistoryOverloadHandler handler = handler("drop");
+
+        // When
+        handler.onRejected(history(200, 5L));
+
+        // Then
+        assertEquals(1, handler.getRejectedCount());
+        assertEquals(1, handler.getDroppedCount());
+        assertFalse(handler.hasPending());
+    }
+
+    @Test
+    void testOnRejected_Sample_KeepsOneOfNAndAlwaysErrors() throws Exception {
+        // Given
+        HistoryOverloadHandler handler = handler("sample");
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            handler.onRejected(history(200, 5L));
+        }
+        handler.onRejected(history(500, 5L));
+
+        // Then
+        List<ApiCallHistory> kept = handler.drain(100);
+        assertEquals(2, kept.size());
+        assertEquals(500, kept.get(1).getStatusCode());
+        assertEquals(2, handler.getSampledCount());
+        assertEquals(9, handler.getDroppedCount());
+    }
+
+    @Test
+    void testOnRejected_Coalesce_AggregatesByEndpointMethodAndStatus() throws Exception {
+        // Given
+        HistoryOverloadHandler handler = handler("coalesce");
+
+        // When
+        handler.onRejected(history(200, 10L));
+        handler.onRejected(history(200, 30L));
+        handler.onRejected(history(503, 4L));
+
+        // Then
+        List<ApiCallHistory> summaries = handler.drain(100);
+        assertEquals(2, summaries.size());
+        ApiCallHistory ok = summaries.stream().filter(h -> h.getStatusCode() == 200).findFirst().orElseThrow();
+        assertEquals(20L, ok.getExecutionTimeMs());
+        assertTrue(ok.getResponseBody().contains("\"coalescedCalls\":2"));
+        assertFalse(handler.hasPending());
+    }
+
+    @Test
+    void testOnRejected_Spill_WritesToDiskAndReplaysInOrder() throws Exception {
+        // Given
+        HistoryOverloadHandler handler = handler("spill");
+
+        // When
+        handler.onRejected(history(200, 1L));
+        handler.onRejected(history(200, 2L));
+        handler.onRejected(history(200, 3L));
+
+        // Then
+        assertTrue(handler.hasPending());
+        awaitSpilled(handler, 3);
+        List<ApiCallHistory> first = handler.drain(2);
+        handler.commitDrain();
+        List<ApiCallHistory> rest = handler.drain(10);
+        handler.commitDrain();
+        assertEquals(List.of(1L, 2L), first.stream().map(ApiCallHistory::getExecutionTimeMs).toList());
+        assertEquals(List.of(3L), rest.stream().map(ApiCallHistory::getExecutionTimeMs).toList());
+        assertFalse(handler.hasPending());
+        assertEquals(3, handler.getSpilledCount());
+        handler.close();
+    }
+
+    @Test
+    void testOnRejected_Spill_ReplaysUncommittedRecordsAfterFailureAndRestart() throws Exception {
+        // Given
+        HistoryOverloadHandler handler = handler("spill");
+        handler.onRejected(history(200, 1L));
+        handler.onRejected(history(200, 2L));
+        handler.onRejected(history(200, 3L));
+        awaitSpilled(handler, 3);
+        handler.drain(1);
+        handler.commitDrain();
+
+        // When: falla la persistencia del siguiente lote y la aplicación se reinicia
+        assertEquals(2, handler.drain(10).size());
+        handler.abortDrain();
+        assertEquals(2, handler.drain(10).size());
+        handler.close();
+        HistoryOverloadHandler restarted = handler("spill");
+
+        // Then
+        assertTrue(restarted.hasPending());
+        List<ApiCallHistory> replayed = restarted.drain(10);
+        assertEquals(List.of(2L, 3L), replayed.stream().map(ApiCallHistory::getExecutionTimeMs).toList());
+        restarted.commitDrain();
+        assertFalse(restarted.hasPending());
+        restarted.close();
+    }
+
+    @Test
+    void testOnRejected_Spill_DropsWhenSpillQueueIsFull() throws Exception {
+        // Given: un registro que bloquea el hilo de spill mientras se serializa
+        HistoryOverloadHandler handler = handler("spill", 2);
+        CountDownLatch serializing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ApiCallHistory blocking = spy(history(200, 1L));
+        doAnswer(invocation -> {
+            serializing.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(blocking).getRequestPayload();
+        handler.onRejected(blocking);
+        assertTrue(serializing.await(5, TimeUnit.SECONDS));
+
+        // When: la cola admite 2 registros más
+        for (int i = 0; i < 3; i++) {
+            handler.onRejected(history(200, 2L));
+        }
+        release.countDown();
+
+        // Then
+        awaitSpilled(handler, 3);
+        assertEquals(1, handler.getDroppedCount());
+        assertEquals(3, handler.drain(10).size());
+        handler.close();
+    }
+
+    private static void awaitSpilled(HistoryOverloadHandler handler, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handler.getSpilledCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, handler.getSpilledCount());
+    }
+
+    private HistoryOverloadHandler handler(String policy) throws Exception {
+        return handler(policy, 100);
+    }
+
+    private HistoryOverloadHandler handler(String policy, int overflowCapacity) throws Exception {
+        HistoryOverloadHandler handler = new HistoryOverloadHandler(new JacksonConfig().objectMapper(),
+                new HistoryPayloadCodec(new JacksonConfig().objectMapper()));
+        ReflectionTestUtils.setField(handler, "policyName", policy);
+        ReflectionTestUtils.setField(handler, "sampleRate", 10);
+        ReflectionTestUtils.setField(handler, "overflowCapacity", overflowCapacity);
+        ReflectionTestUtils.setField(handler, "spillDir", spillDir);
+        handler.init();
+        return handler;
+    }
+
+    private ApiCallHistory history(int statusCode, long executionTimeMs) {
+        return ApiCallHistory.builder()
+                .timestamp(LocalDateTime.now())
+                .endpoint("/api/calculate")
+                .method("POST")
+                .statusCode(statusCode)
+                .executionTimeMs(executionTimeMs)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.tekton.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HistoryRollupService historyRollupService;
+
+    private HistoryPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new HistoryPartitionManager(jdbcTemplate, new TransactionTemplate(transactionManager),
+                historyRollupService);
+        ReflectionTestUtils.setField(manager, "interval", "day");
+        ReflectionTestUtils.setField(manager, "precreate", 3);
+        ReflectionTestUtils.setField(manager, "retentionDays", 30);
+    }
+
+    @Test
+    void testParsePartition() {
+        HistoryPartitionManager.Partition range = HistoryPartitionManager.parsePartition("api_call_history_p20261018",
+                "FOR VALUES FROM ('2026-10-18 00:00:00') TO ('2026-10-19 00:00:00')");
+
+        assertEquals(LocalDateTime.of(2026, 10, 18, 0, 0), range.from());
+        assertEquals(LocalDateTime.of(2026, 10, 19, 0, 0), range.to());
+        assertTrue(HistoryPartitionManager.parsePartition("api_call_history_default", "DEFAULT").isDefault());
+        assertNull(HistoryPartitionManager.parsePartition("p", "FOR VALUES FROM (MINVALUE) TO ('2026-01-01 00:00:00')"));
+    }
+
+    @Test
+    void testCreatePartitions_SkipsPeriodsCoveredByExistingPartitions() {
+        // Given: partición mensual de octubre (creada por la migración) y partición por defecto vacía
+        existingPartitions(
+                partition("api_call_history_p202610", "2026-10-01", "2026-11-01"),
+                new HistoryPartitionManager.Partition(HistoryPartitionManager.DEFAULT_PARTITION, null, null));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(false);
+
+        // When
+        int created = manager.createPartitions(LocalDate.of(2026, 10, 30));
+
+        // Then
+        assertEquals(2, created);
+        verify(jdbcTemplate).execute("CREATE TABLE api_call_history_p20261101 PARTITION OF api_call_history "
+                + "FOR VALUES FROM ('2026-11-01T00:00') TO ('2026-11-02T00:00')");
+        verify(jdbcTemplate).execute("CREATE TABLE api_call_history_p20261102 PARTITION OF api_call_history "
+                + "FOR VALUES FROM ('2026-11-02T00:00') TO ('2026-11-03T00:00')");
+        verify(jdbcTemplate, never()).execute(contains("p20261030"));
+    }
+
+    @Test
+    void testCreatePartitions_MovesRowsFromDefaultPartition() {
+        // Given
+        ReflectionTestUtils.setField(manager, "precreate", 0);
+        existingPartitions(new HistoryPartitionManager.Partition(HistoryPartitionManager.DEFAULT_PARTITION, null, null));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(true);
+
+        // When
+        manager.createPartitions(LocalDate.of(2026, 10, 18));
+
+        // Then
+        Timestamp from = Timestamp.valueOf("2026-10-18 00:00:00");
+        Timestamp to = Timestamp.valueOf("2026-10-19 00:00:00");
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE api_call_history DETACH PARTITION api_call_history_default");
+        inOrder.verify(jdbcTemplate).execute(startsWith("CREATE TABLE api_call_history_p20261018"));
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO api_call_history SELECT"), eq(from), eq(to));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM api_call_history_default"), eq(from), eq(to));
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE api_call_history ATTACH PARTITION api_call_history_default DEFAULT");
+    }
+
+    @Test
+    void testDropExpiredPartitions_DropsOnlyPartitionsEndingBeforeCutoff() {
+        // Given: retención de 30 días desde el 18/10 -> corte el 18/09
+        existingPartitions(
+                partition("api_call_history_p20260917", "2026-09-17", "2026-09-18"),
+                partition("api_call_history_p20260918", "2026-09-18", "2026-09-19"),
+                new HistoryPartitionManager.Partition(HistoryPartitionManager.DEFAULT_PARTITION, null, null));
+
+        // When
+        int dropped = manager.dropExpiredPartitions(LocalDate.of(2026, 10, 18));
+
+        // Then
+        assertEquals(1, dropped);
+        verify(jdbcTemplate).execute("DROP TABLE api_call_history_p20260917");
+        verify(jdbcTemplate, never()).execute("DROP TABLE api_call_history_p20260918");
+        verify(jdbcTemplate).update(eq("DELETE FROM api_call_history_default WHERE timestamp < ?"), any(Object.class));
+    }
+
+    @Test
+    void testDropExpiredPartitions_KeepsPartitionsNotYetRolledUp() {
+        // Given: corte por retención el 18/09, pero los rollups solo llegan al 17/09 12:00
+        when(historyRollupService.isEnabled()).thenReturn(true);
+        when(historyRollupService.getRolledUpTo()).thenReturn(LocalDateTime.of(2026, 9, 17, 12, 0));
+        existingPartitions(
+                partition("api_call_history_p20260916", "2026-09-16", "2026-09-17"),
+                partition("api_call_history_p20260917", "2026-09-17", "2026-09-18"));
+
+        // When
+        int dropped = manager.dropExpiredPartitions(LocalDate.of(2026, 10, 18));
+
+        // Then
+        assertEquals(1, dropped);
+        verify(jdbcTemplate).execute("DROP TABLE api_call_history_p20260916");
+        verify(jdbcTemplate, never()).execute("DROP TABLE api_call_history_p20260917");
+    }
+
+    @Test
+    void testDropExpiredPartitions_DisabledWithZeroRetention() {
+        ReflectionTestUtils.setField(manager, "retentionDays", 0);
+
+        assertEquals(0, manager.dropExpiredPartitions(LocalDate.of(2026, 10, 18)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void existingPartitions(HistoryPartitionManager.Partition... partitions) {
+        doReturn(List.of(partitions)).when(jdbcTemplate).query(anyString(), ArgumentMatchers.<RowMapper<HistoryPartitionManager.Partition>>any());
+    }
+
+    private static HistoryPartitionManager.Partition partition(String name, String from, String to) {
+        return new HistoryPartitionManager.Partition(name,
+                LocalDate.parse(from).atStartOfDay(), LocalDate.parse(to).atStartOfDay());
+    }
+}
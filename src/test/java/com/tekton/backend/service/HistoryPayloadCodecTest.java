@@ -0,0 +1,187 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.config.JacksonConfig;
+import com.tekton.backend.dto.CalculationRequest;
+import com.tekton.backend.entity.ApiCallHistory;
+import com.tekton.backend.util.DeflatePayloadCompressor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryPayloadCodecTest {
+
+    private static final String BATCH_BODY = "[" + "{\"num1\":10.5,\"num2\":20.3},".repeat(40) + "{\"num1\":1.0,\"num2\":2.0}]";
+
+    private HistoryPayloadCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new HistoryPayloadCodec(new JacksonConfig().objectMapper());
+        ReflectionTestUtils.setField(codec, "enabled", true);
+        ReflectionTestUtils.setField(codec, "thresholdBytes", 256);
+    }
+
+    @Test
+    void testEncode_CompressesAboveThresholdAndRoundTrips() {
+        // When
+        HistoryPayloadCodec.EncodedPayload encoded = codec.encode(BATCH_BODY);
+
+        // Then
+        assertNull(encoded.text());
+        assertEquals(2, encoded.compressed()[0]);
+        assertTrue(encoded.compressed().length < BATCH_BODY.length() / 5);
+        assertEquals(BATCH_BODY.length(), encoded.size());
+        assertEquals(BATCH_BODY, codec.decode(null, encoded.compressed()));
+    }
+
+    @Test
+    void testEncode_KeepsTextBelowThreshold() {
+        // When
+        HistoryPayloadCodec.EncodedPayload encoded = codec.encode("{\"num1\":ñ}");
+
+        // Then
+        assertEquals("{\"num1\":ñ}", encoded.text());
+        assertNull(encoded.compressed());
+        assertEquals(11, encoded.size());
+        assertEquals("{\"num1\":ñ}", codec.decode(encoded.text(), encoded.compressed()));
+    }
+
+    @Test
+    void testEncode_KeepsTextWhenCompressionSavesLittle() {
+        // Given: caracteres ASCII imprimibles aleatorios
+        Random random = new Random(42);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            body.append((char) (' ' + random.nextInt(95)));
+        }
+
+        // When
+        HistoryPayloadCodec.EncodedPayload encoded = codec.encode(body.toString());
+
+        // Then
+        assertEquals(body.toString(), encoded.text());
+        assertNull(encoded.compressed());
+    }
+
+    @Test
+    void testEncode_DictionaryBeatsPlainDeflateOnSmallJson() {
+        // Given
+        String body = "{\"result\":34.08,\"num1\":10.5,\"num2\":20.3,\"sum\":30.8,\"percentage\":10.0,"
+                + "\"timestamp\":\"2026-10-18T10:30:00.123456\"}";
+
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        int plain = HistoryPayloadCodec.Algorithm.DEFLATE.getCompressor().compress(utf8, 0, utf8.length).length;
+        int dictionary = HistoryPayloadCodec.Algorithm.DEFLATE_JSON_DICTIONARY.getCompressor()
+                .compress(utf8, 0, utf8.length).length;
+
+        // Then
+        assertTrue(dictionary < plain / 2, "diccionario=" + dictionary + " sin diccionario=" + plain);
+    }
+
+    @Test
+    void testEncode_CompressesSingleCallPayloadsWithDefaultThreshold() {
+        // Given
+        ReflectionTestUtils.setField(codec, "thresholdBytes", 64);
+        String response = "{\"result\":34.08,\"num1\":10.5,\"num2\":20.3,\"sum\":30.8,\"percentage\":10.0,"
+                + "\"timestamp\":\"2026-10-18T10:30:00.123456\"}";
+        String error = "{\"timestamp\":\"2026-10-18T10:30:00.123456\",\"status\":400,\"error\":\"Bad Request\","
+                + "\"message\":\"Error de validación en los datos de entrada\",\"details\":{\"num1\":\"num1 es requerido\"}}";
+
+        // When
+        HistoryPayloadCodec.EncodedPayload encodedResponse = codec.encode(response);
+        HistoryPayloadCodec.EncodedPayload encodedError = codec.encode(error);
+
+        // Then
+        assertNotNull(encodedResponse.compressed());
+        assertEquals(response, codec.decode(null, encodedResponse.compressed()));
+        assertNotNull(encodedError.compressed());
+        assertEquals(error, codec.decode(null, encodedError.compressed()));
+    }
+
+    @Test
+    void testJsonDictionary_IsUtf8() {
+        assertTrue(new String(DeflatePayloadCompressor.JSON_DICTIONARY, StandardCharsets.UTF_8).contains("validación"));
+    }
+
+    @Test
+    void testDecode_ReadsValuesWrittenWithAnotherAlgorithm() {
+        // Given
+        ReflectionTestUtils.setField(codec, "algorithm", HistoryPayloadCodec.Algorithm.DEFLATE);
+        byte[] stored = codec.encode(BATCH_BODY).compressed();
+        ReflectionTestUtils.setField(codec, "algorithm", HistoryPayloadCodec.Algorithm.DEFLATE_JSON_DICTIONARY);
+
+        // When & Then
+        assertEquals(1, stored[0]);
+        assertEquals(BATCH_BODY, codec.decode(null, stored));
+    }
+
+    @Test
+    void testDecode_ThrowsException_WhenAlgorithmUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(null, new byte[]{99, 1, 2}));
+    }
+
+    @Test
+    void testCompress_IsIdempotent() {
+        // Given
+        ApiCallHistory history = ApiCallHistory.builder().requestBody(BATCH_BODY).responseBody("{}").build();
+
+        // When
+        codec.compress(history);
+        byte[] first = history.getRequestBodyCompressed();
+        codec.compress(history);
+
+        // Then
+        assertSame(first, history.getRequestBodyCompressed());
+        assertNull(history.getRequestBody());
+        assertEquals(BATCH_BODY.length(), history.getRequestBodySize());
+        assertEquals("{}", history.getResponseBody());
+        assertEquals(2, history.getResponseBodySize());
+    }
+
+    @Test
+    void testCompress_SerializesCapturedPayloads() {
+        // Given
+        List<CalculationRequest> requests = Collections.nCopies(41, CalculationRequest.builder().num1(10.5).num2(20.3).build());
+        ApiCallHistory history = ApiCallHistory.builder()
+                .requestPayload(requests)
+                .responsePayload(Map.of("result", 11.0))
+                .build();
+
+        // When
+        codec.compress(history);
+
+        // Then
+        assertNull(history.getRequestPayload());
+        assertNull(history.getResponsePayload());
+        assertNull(history.getRequestBody());
+        assertTrue(codec.decode(null, history.getRequestBodyCompressed()).startsWith("[{\"num1\":10.5,\"num2\":20.3}"));
+        assertEquals("{\"result\":11.0}", history.getResponseBody());
+        assertEquals(15, history.getResponseBodySize());
+    }
+
+    @Test
+    void testSerialize_TruncatesWithoutSplittingMultiByteCharacters() {
+        // Given: "ñ" ocupa 2 bytes y "€" 3; el JSON incluye las comillas
+        String suffix = HistoryPayloadCodec.TRUNCATED_SUFFIX;
+
+        int maxBytes = 5 + suffix.length();
+
+        // When & Then: el límite incluye el sufijo
+        assertEquals("\"añ" + suffix, codec.serialize("aññño" + "x".repeat(20), maxBytes));
+        assertEquals("\"ab" + suffix, codec.serialize("ab€" + "x".repeat(20), maxBytes));
+        assertEquals("\"abcd" + suffix, codec.serialize("abcd" + "x".repeat(20), maxBytes));
+        assertEquals(maxBytes, codec.serialize("abcd" + "x".repeat(20), maxBytes).getBytes(StandardCharsets.UTF_8).length);
+        assertEquals("\"abc\"", codec.serialize("abc", 5));
+        assertEquals("\"abcdefgh\"", codec.serialize("abcdefgh", 0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.tekton.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryRollupServiceTest {
+
+    private static final String CHECKPOINT_SQL =
+            "SELECT rolled_up_to FROM history_rollup_checkpoint WHERE granularity = ? FOR UPDATE";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HistoryRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HistoryRollupService(jdbcTemplate, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "lagSeconds", 120L);
+        ReflectionTestUtils.setField(service, "maxWindowHours", 6L);
+    }
+
+    @Test
+    void testRollUp_AdvancesWatermarkInWindowsUpToLag() {
+        // Given: marca de agua a las 00:00 y ahora 10:30 -> se agrega hasta 10:00 en ventanas de 6 horas
+        LocalDateTime watermark = LocalDateTime.of(2026, 10, 18, 0, 0);
+        when(jdbcTemplate.queryForObject(CHECKPOINT_SQL, LocalDateTime.class, "HOUR"))
+                .thenReturn(watermark, watermark.plusHours(6), watermark.plusHours(10));
+        when(jdbcTemplate.update(startsWith("INSERT INTO api_call_history_rollup_hour"), any(Object[].class)))
+                .thenReturn(4, 2);
+
+        // When
+        int inserted = service.rollUp(HistoryRollupService.Granularity.HOUR, LocalDateTime.of(2026, 10, 18, 10, 30));
+
+        // Then
+        assertEquals(6, inserted);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO api_call_history_rollup_hour"),
+                eq(Timestamp.valueOf(watermark)), eq(Timestamp.valueOf(watermark.plusHours(6))));
+        inOrder.verify(jdbcTemplate).update(startsWith("UPDATE history_rollup_checkpoint"),
+                eq(Timestamp.valueOf(watermark.plusHours(6))), eq("HOUR"));
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO api_call_history_rollup_hour"),
+                eq(Timestamp.valueOf(watermark.plusHours(6))), eq(Timestamp.valueOf(watermark.plusHours(10))));
+        inOrder.verify(jdbcTemplate).update(startsWith("UPDATE history_rollup_checkpoint"),
+                eq(Timestamp.valueOf(watermark.plusHours(10))), eq("HOUR"));
+    }
+
+    @Test
+    void testPurgeRawHistory_DeletesInBatchesUpToWatermark() {
+        // Given: retención de 90 días pero el historial solo está agregado hasta hace 100 días
+        ReflectionTestUtils.setField(service, "partitionManaged", false);
+        ReflectionTestUtils.setField(service, "rawRetentionDays", 90);
+        LocalDateTime rolledUpTo = LocalDate.now().minusDays(100).atStartOfDay();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT CASE WHEN"), eq(LocalDateTime.class))).thenReturn(rolledUpTo);
+        when(jdbcTemplate.update(startsWith("DELETE FROM api_call_history WHERE"), any(Object[].class)))
+                .thenReturn(HistoryRollupService.RAW_PURGE_BATCH, 7);
+
+        // When
+        long purged = service.purgeRawHistory(LocalDate.now());
+
+        // Then: lotes hasta que uno queda incompleto, sin pasar de la marca de agua
+        assertEquals(HistoryRollupService.RAW_PURGE_BATCH + 7L, purged);
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM api_call_history WHERE"),
+                eq(Timestamp.valueOf(rolledUpTo)), eq(Timestamp.valueOf(rolledUpTo)));
+    }
+
+    @Test
+    void testPurgeRawHistory_SkipsUntilRollupHasRun() {
+        // Given
+        ReflectionTestUtils.setField(service, "rawRetentionDays", 90);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT CASE WHEN"), eq(LocalDateTime.class))).thenReturn(null);
+
+        // When & Then
+        assertEquals(0, service.purgeRawHistory(LocalDate.now()));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM api_call_history WHERE"), any(Object[].class));
+    }
+
+    @Test
+    void testRollUp_FirstRunStartsAtOldestRecord() {
+        // Given
+        when(jdbcTemplate.queryForObject(CHECKPOINT_SQL, LocalDateTime.class, "MINUTE"))
+                .thenReturn(null, LocalDateTime.of(2026, 10, 18, 9, 1));
+        when(jdbcTemplate.queryForObject("SELECT min(timestamp) FROM api_call_history", LocalDateTime.class))
+                .thenReturn(LocalDateTime.of(2026, 10, 18, 8, 59, 41));
+
+        // When
+        service.rollUp(HistoryRollupService.Granularity.MINUTE, LocalDateTime.of(2026, 10, 18, 9, 3, 30));
+
+        // Then: desde el minuto del registro más antiguo hasta ahora - lag, truncado al minuto
+        verify(jdbcTemplate).update(startsWith("INSERT INTO api_call_history_rollup_minute"),
+                eq(Timestamp.valueOf("2026-10-18 08:59:00")), eq(Timestamp.valueOf("2026-10-18 09:01:00")));
+    }
+
+    @Test
+    void testRollUp_NothingPendingDoesNotInsert() {
+        when(jdbcTemplate.queryForObject(CHECKPOINT_SQL, LocalDateTime.class, "HOUR"))
+                .thenReturn(LocalDateTime.of(2026, 10, 18, 10, 0));
+
+        assertEquals(0, service.rollUp(HistoryRollupService.Granularity.HOUR, LocalDateTime.of(2026, 10, 18, 10, 30)));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT"), any(Object[].class));
+    }
+
+    @Test
+    void testHistogramSql_HasOneCounterPerBucket() {
+        String sql = HistoryRollupService.histogramSql();
+
+        assertEquals(HistoryRollupService.LATENCY_BUCKETS_MS.length + 1, sql.split("count\\(\\*\\)").length - 1);
+        assertTrue(sql.startsWith("ARRAY[count(*) FILTER (WHERE execution_time_ms < 5)"));
+        assertTrue(sql.endsWith("count(*) FILTER (WHERE execution_time_ms >= 10000)]"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.tekton.backend.service;
+
+import com.tekton.backend.dto.LatencyStatsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyStatsServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private LatencyStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LatencyStatsService();
+        ReflectionTestUtils.setField(service, "slotSeconds", 10);
+        ReflectionTestUtils.setField(service, "windowsSeconds", new int[]{60, 300});
+        ReflectionTestUtils.setField(service, "maxEndpoints", 2);
+        ReflectionTestUtils.setField(service, "stripes", 2);
+        service.clock = now::get;
+        service.init();
+    }
+
+    @Test
+    void testGetStats_ComputesPercentilesThroughputAndErrorRate() {
+        // Given: 100 llamadas de 1..100 ms, 5 con error
+        for (int i = 1; i <= 100; i++) {
+            service.record("POST /api/calculate", i * 1_000L, i % 20 == 0);
+        }
+
+        // When
+        List<LatencyStatsResponse> stats = service.getStats(null);
+
+        // Then
+        assertEquals(2, stats.size());
+        LatencyStatsResponse minute = stats.get(0);
+        assertEquals(60, minute.getWindowSeconds());
+        assertEquals(100, minute.getCount());
+        assertEquals(0.05, minute.getErrorRate(), 1e-9);
+        assertEquals(50.5, minute.getAvgMs(), 1e-9);
+        assertEquals(50, minute.getP50Ms(), 50 / 16.0);
+        assertEquals(99, minute.getP99Ms(), 99 / 16.0);
+        assertTrue(minute.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    void testGetStats_ExcludesCallsOutsideTheWindow() {
+        // Given
+        service.record("GET /api/history", 1_000, false);
+        now.addAndGet(120_000);
+        service.record("GET /api/history", 2_000, false);
+
+        // When
+        List<LatencyStatsResponse> stats = service.getStats("GET /api/history");
+
+        // Then
+        assertEquals(1, stats.get(0).getCount());
+        assertEquals(2, stats.get(1).getCount());
+    }
+
+    @Test
+    void testRecord_ReusesRingSlotsAfterAFullTurn() {
+        // Given
+        service.record("GET /api/history", 1_000, false);
+
+        // When: el anillo cubre 310 s; pasado ese tiempo el intervalo se reemplaza
+        now.addAndGet(310_000);
+        service.record("GET /api/history", 1_000, false);
+
+        // Then
+        assertEquals(1, service.getStats("GET /api/history").get(1).getCount());
+    }
+
+    @Test
+    void testRecord_GroupsEndpointsBeyondLimit() {
+        service.record("GET /a", 1_000, false);
+        service.record("GET /b", 1_000, false);
+        service.record("GET /c", 1_000, false);
+
+        assertEquals(1, service.getStats(LatencyStatsService.OTHER_ENDPOINT).get(0).getCount());
+        assertTrue(service.getStats("GET /c").isEmpty());
+    }
+}
@@ -8,8 +8,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +29,9 @@ class PercentageCacheServiceTest {
     @Mock
     private ExternalPercentageService externalPercentageService;
 
+    @Mock
+    private TaskScheduler percentageRefreshScheduler;
+
     @InjectMocks
     private PercentageCacheService percentageCacheService;
 
@@ -39,12 +49,15 @@ class PercentageCacheServiceTest {
         assertEquals(expectedPercentage, result);
         verify(externalPercentageService, times(1)).getPercentage();
         verify(percentageCache, times(1)).put(CacheConfig.PERCENTAGE_CACHE_KEY, expectedPercentage);
+        assertEquals(1, percentageCacheService.getUpstreamHitCount());
+        assertEquals(0, percentageCacheService.getCacheFallbackCount());
     }
 
     @Test
     void testGetPercentage_FromCache_WhenExternalServiceFails() {
         // Given
         Double cachedPercentage = 15.0;
+        markRefreshedNow();
         when(externalPercentageService.getPercentage())
                 .thenThrow(new RestClientException("Service unavailable"));
         when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY))
@@ -58,6 +71,57 @@ class PercentageCacheServiceTest {
         assertEquals(cachedPercentage, result);
         verify(externalPercentageService, times(1)).getPercentage();
         verify(percentageCache, times(1)).getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY);
+        assertEquals(1, percentageCacheService.getCacheFallbackCount());
+        assertEquals(0, percentageCacheService.getUpstreamHitCount());
+    }
+
+    @Test
+    void testGetPercentage_ThrowsException_WhenCachedValueBeyondMaxStaleness() {
+        // Given
+        ReflectionTestUtils.setField(percentageCacheService, "maxStalenessMs", 1000L);
+        ReflectionTestUtils.setField(percentageCacheService, "lastRefreshNanos",
+                System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+        when(externalPercentageService.getPercentage())
+                .thenThrow(new RestClientException("Service unavailable"));
+        when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY)).thenReturn(15.0);
+
+        // When & Then
+        assertThrows(PercentageNotFoundException.class, () -> percentageCacheService.getPercentage());
+        assertEquals(1, percentageCacheService.getNotFoundCount());
+        assertEquals(0, percentageCacheService.getCacheFallbackCount());
+    }
+
+    @Test
+    void testGetPercentageAsync_FromCache_WhenExternalServiceFails() {
+        // Given
+        markRefreshedNow();
+        when(externalPercentageService.getPercentageAsync())
+                .thenReturn(CompletableFuture.failedFuture(new RestClientException("Service unavailable")));
+        when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY)).thenReturn(15.0);
+
+        // When
+        Double result = percentageCacheService.getPercentageAsync().join();
+
+        // Then
+        assertEquals(15.0, result);
+        assertEquals(1, percentageCacheService.getCacheFallbackCount());
+        verify(externalPercentageService, never()).getPercentage();
+    }
+
+    @Test
+    void testGetPercentageAsync_FailsWithNotFound_WhenNoCacheAndServiceFails() {
+        // Given
+        when(externalPercentageService.getPercentageAsync())
+                .thenReturn(CompletableFuture.failedFuture(new RestClientException("Service unavailable")));
+        when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY)).thenReturn(null);
+
+        // When
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> percentageCacheService.getPercentageAsync().join());
+
+        // Then
+        assertInstanceOf(PercentageNotFoundException.class, thrown.getCause());
+        assertEquals(1, percentageCacheService.getNotFoundCount());
     }
 
     @Test
@@ -75,6 +139,7 @@ class PercentageCacheServiceTest {
         
         verify(externalPercentageService, times(1)).getPercentage();
         verify(percentageCache, times(1)).getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY);
+        assertEquals(1, percentageCacheService.getNotFoundCount());
     }
 
     @Test
@@ -117,4 +182,62 @@ class PercentageCacheServiceTest {
         // Then
         assertFalse(result);
     }
+
+    @Test
+    void testGetPercentage_RefreshAhead_ServesFromCacheWithoutCallingExternalService() {
+        // Given
+        enableRefreshAhead();
+        when(externalPercentageService.getPercentage()).thenReturn(10.5);
+        percentageCacheService.refresh();
+        when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY)).thenReturn(10.5);
+
+        // When
+        Double result = percentageCacheService.getPercentage();
+
+        // Then
+        assertEquals(10.5, result);
+        verify(externalPercentageService, times(1)).getPercentage();
+        verify(percentageRefreshScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testGetPercentage_RefreshAhead_ColdCacheFetchesSynchronously() {
+        // Given
+        enableRefreshAhead();
+        when(percentageCache.getIfPresent(CacheConfig.PERCENTAGE_CACHE_KEY)).thenReturn(null);
+        when(externalPercentageService.getPercentage()).thenReturn(12.0);
+
+        // When
+        Double result = percentageCacheService.getPercentage();
+
+        // Then
+        assertEquals(12.0, result);
+        verify(percentageCache, times(1)).put(CacheConfig.PERCENTAGE_CACHE_KEY, 12.0);
+    }
+
+    @Test
+    void testRefresh_KeepsStaleValue_WhenExternalServiceFails() {
+        // Given
+        enableRefreshAhead();
+        when(externalPercentageService.getPercentage()).thenThrow(new RestClientException("Service unavailable"));
+
+        // When
+        percentageCacheService.refresh();
+
+        // Then
+        verify(percentageCache, never()).put(anyString(), anyDouble());
+        verify(percentageRefreshScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private void markRefreshedNow() {
+        ReflectionTestUtils.setField(percentageCacheService, "maxStalenessMs", 1800000L);
+        ReflectionTestUtils.setField(percentageCacheService, "lastRefreshNanos", System.nanoTime());
+    }
+
+    private void enableRefreshAhead() {
+        ReflectionTestUtils.setField(percentageCacheService, "mode", PercentageCacheService.MODE_REFRESH_AHEAD);
+        ReflectionTestUtils.setField(percentageCacheService, "refreshIntervalMs", 60000L);
+        ReflectionTestUtils.setField(percentageCacheService, "maxStalenessMs", 1800000L);
+        ReflectionTestUtils.setField(percentageCacheService, "refreshJitterMs", 0L);
+    }
 }
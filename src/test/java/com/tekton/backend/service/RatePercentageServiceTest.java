@@ -0,0 +1,150 @@
+package com.tekton.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tekton.backend.config.CacheConfig;
+import com.tekton.backend.exception.PercentageNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class RatePercentageServiceTest {
+
+    private final Map<String, Double> upstream = new HashMap<>();
+    private final List<Set<String>> upstreamCalls = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+    private boolean upstreamDown;
+
+    private RatePercentageService service;
+
+    @BeforeEach
+    void setUp() {
+        upstream.put("retail", 10.0);
+        upstream.put("wholesale", 20.0);
+        AsyncLoadingCache<String, Double> cache = Caffeine.newBuilder()
+                .maximumSize(100)
+                .refreshAfterWrite(1, TimeUnit.MINUTES)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .executor(Runnable::run)
+                .ticker(nanos::get)
+                .buildAsync(new CacheLoader<String, Double>() {
+                    @Override
+                    public Double load(String key) {
+                        return loadAll(Set.of(key)).get(key);
+                    }
+
+                    @Override
+                    public Map<String, Double> loadAll(Set<? extends String> keys) {
+                        upstreamCalls.add(Set.copyOf(keys));
+                        if (upstreamDown) {
+                            throw new RestClientException("Service unavailable");
+                        }
+                        Map<String, Double> found = new HashMap<>();
+                        keys.forEach(key -> found.put(key, upstream.getOrDefault(key, CacheConfig.UNKNOWN_RATE)));
+                        return found;
+                    }
+                });
+        service = new RatePercentageService(cache);
+    }
+
+    @Test
+    void testGetPercentages_LoadsMissingKeysWithOneUpstreamCall() {
+        // When
+        Map<String, Double> first = service.getPercentages(List.of("retail", "wholesale"));
+        Double cached = service.getPercentage("retail");
+
+        // Then
+        assertEquals(Map.of("retail", 10.0, "wholesale", 20.0), first);
+        assertEquals(10.0, cached);
+        assertEquals(List.of(Set.of("retail", "wholesale")), upstreamCalls);
+        assertEquals(2, service.getCachedKeyCount());
+    }
+
+    @Test
+    void testGetPercentage_ThrowsNotFound_ForUnknownKey() {
+        // When & Then
+        assertThrows(PercentageNotFoundException.class, () -> service.getPercentage("unknown"));
+        assertThrows(PercentageNotFoundException.class, () -> service.getPercentages(List.of("retail", "unknown")));
+        CompletionException async = assertThrows(CompletionException.class,
+                () -> service.getPercentageAsync("unknown").join());
+        assertInstanceOf(PercentageNotFoundException.class, async.getCause());
+    }
+
+    @Test
+    void testGetPercentage_CachesUnknownKeysForNegativeTtl() {
+        // Given: el caché de la aplicación sobre un servicio externo que solo conoce "retail"
+        ExternalPercentageService external = mock(ExternalPercentageService.class);
+        when(external.getPercentagesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("retail", 10.0)));
+        CacheConfig config = new CacheConfig();
+        ReflectionTestUtils.setField(config, "ratesMaxKeys", 100L);
+        ReflectionTestUtils.setField(config, "ratesRefreshAfterMs", 60000L);
+        ReflectionTestUtils.setField(config, "ratesMaxStalenessMs", 1800000L);
+        ReflectionTestUtils.setField(config, "ratesNegativeTtlMs", 5000L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncLoadingCache<String, Double> cache = config.percentageRatesCache(external, executor);
+        RatePercentageService rates = new RatePercentageService(cache);
+
+        // When
+        assertThrows(PercentageNotFoundException.class, () -> rates.getPercentages(List.of("retail", "unknown")));
+        assertThrows(PercentageNotFoundException.class, () -> rates.getPercentage("unknown"));
+
+        // Then
+        verify(external, times(1)).getPercentagesAsync(anyCollection());
+        assertEquals(10.0, rates.getPercentage("retail"));
+        var expiry = cache.synchronous().policy().expireVariably().orElseThrow();
+        assertEquals(5000, expiry.getExpiresAfter("unknown", TimeUnit.MILLISECONDS).orElseThrow(), 100);
+        assertEquals(1800000, expiry.getExpiresAfter("retail", TimeUnit.MILLISECONDS).orElseThrow(), 100);
+        executor.shutdown();
+    }
+
+    @Test
+    void testGetPercentage_RefreshesPerKeyAndKeepsValueWhenRefreshFails() {
+        // Given
+        service.getPercentages(List.of("retail", "wholesale"));
+        upstream.put("retail", 12.0);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+        // When: la lectura vencida dispara el refresco de esa clave
+        service.getPercentage("retail");
+        Double refreshed = service.getPercentage("retail");
+        upstreamDown = true;
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        service.getPercentage("retail");
+        Double stale = service.getPercentage("retail");
+
+        // Then
+        assertEquals(12.0, refreshed);
+        assertEquals(12.0, stale);
+        assertEquals(Set.of("retail"), upstreamCalls.get(1));
+    }
+
+    @Test
+    void testGetPercentage_ThrowsNotFound_WhenUpstreamDownAndNotCached() {
+        // Given
+        upstreamDown = true;
+
+        // When & Then
+        PercentageNotFoundException thrown = assertThrows(PercentageNotFoundException.class,
+                () -> service.getPercentage("retail"));
+        assertInstanceOf(RestClientException.class, thrown.getCause());
+    }
+}
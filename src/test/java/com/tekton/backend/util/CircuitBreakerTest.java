@@ -0,0 +1,112 @@
+package com.tekton.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private CircuitBreaker breaker(long openDurationMs) {
+        return CircuitBreaker.builder()
+                .name("test")
+                .windowSize(10)
+                .minimumCalls(4)
+                .failureRateThreshold(50)
+                .slowCallRateThreshold(75)
+                .slowCallThresholdMs(100)
+                .openDurationMs(openDurationMs)
+                .halfOpenPermittedCalls(2)
+                .build();
+    }
+
+    @Test
+    void testOpensWhenFailureRateExceedsThreshold() {
+        // Given
+        CircuitBreaker breaker = breaker(60000);
+
+        // When
+        breaker.onResult(false, 0);
+        breaker.onResult(true, 0);
+        breaker.onResult(false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(true, 0);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getNotPermittedCount());
+    }
+
+    @Test
+    void testOpensWhenSlowCallRateExceedsThreshold() {
+        // Given
+        CircuitBreaker breaker = breaker(60000);
+        long slow = TimeUnit.MILLISECONDS.toNanos(500);
+
+        // When
+        breaker.onResult(false, slow);
+        breaker.onResult(false, slow);
+        breaker.onResult(false, slow);
+        breaker.onResult(false, 0);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testExecuteThrowsWithoutCallingSupplier_WhenOpen() {
+        // Given
+        CircuitBreaker breaker = breaker(60000);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, 0);
+        }
+
+        // When & Then
+        assertThrows(CircuitBreaker.CallNotPermittedException.class,
+                () -> breaker.execute(() -> fail("No debe invocarse con el circuito abierto")));
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulProbes() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = breaker(20);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, 0);
+        }
+        Thread.sleep(40);
+
+        // When
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(false, 0);
+        breaker.onResult(false, 0);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testHalfOpenReopensOnFailedProbe() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = breaker(20);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, 0);
+        }
+        Thread.sleep(40);
+
+        // When
+        assertEquals("ok", breaker.execute(() -> "ok"));
+        assertThrows(IllegalStateException.class, () -> breaker.execute(() -> {
+            throw new IllegalStateException("fallo");
+        }));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,130 @@
+package com.tekton.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitingInterceptorTest {
+
+    private final MockClientHttpRequest request =
+            new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost:8085/api/percentage"));
+
+    @Test
+    void testIntercept_ReleasesConnectionWhenResponseIsClosed() throws IOException {
+        // Given
+        ConnectionLimitingInterceptor interceptor = new ConnectionLimitingInterceptor(2, 100, 0);
+
+        // When
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse("10.5".getBytes(), HttpStatus.OK));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, interceptor.getActiveConnections());
+        assertEquals("10.5", new String(response.getBody().readAllBytes()));
+        response.close();
+        response.close();
+        assertEquals(0, interceptor.getActiveConnections());
+        assertEquals(1, interceptor.getRequestCount());
+        assertEquals(0, interceptor.getFailureCount());
+    }
+
+    @Test
+    void testIntercept_FailsWhenPoolExhausted() throws Exception {
+        // Given
+        ConnectionLimitingInterceptor interceptor = new ConnectionLimitingInterceptor(1, 50, 0);
+        CountDownLatch inExchange = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution slow = (req, body) -> {
+            inExchange.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        CompletableFuture<ClientHttpResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return interceptor.intercept(request, new byte[0], slow);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inExchange.await(5, TimeUnit.SECONDS));
+
+        // When / Then
+        assertThrows(ResourceAccessException.class, () -> interceptor.intercept(request, new byte[0], slow));
+        assertEquals(1, interceptor.getAcquireTimeoutCount());
+        assertEquals(1, interceptor.getActiveConnections());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, interceptor.getActiveConnections());
+    }
+
+    @Test
+    void testIntercept_FailsBodyReadAfterTotalDeadline() throws Exception {
+        // Given
+        ConnectionLimitingInterceptor interceptor = new ConnectionLimitingInterceptor(1, 50, 20);
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse("10.5".getBytes(), HttpStatus.OK));
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        assertThrows(SocketTimeoutException.class, () -> response.getBody().read());
+        assertEquals(1, interceptor.getFailureCount());
+        response.close();
+        assertEquals(0, interceptor.getActiveConnections());
+    }
+
+    @Test
+    void testIntercept_CountsFailedExchanges() {
+        // Given
+        ConnectionLimitingInterceptor interceptor = new ConnectionLimitingInterceptor(1, 50, 0);
+
+        // When
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], (req, body) -> {
+            throw new IOException("Connection refused");
+        }));
+
+        // Then
+        assertEquals(1, interceptor.getFailureCount());
+        assertEquals(0, interceptor.getActiveConnections());
+    }
+
+    @Test
+    void testExecuteAsync_WaitsForConnectionHeldByBlockingCall() throws Exception {
+        // Given: la única conexión la ocupa una respuesta del RestTemplate aún abierta
+        ConnectionLimitingInterceptor interceptor = new ConnectionLimitingInterceptor(1, 5000, 0);
+        ClientHttpResponse blocking = interceptor.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse("10.5".getBytes(), HttpStatus.OK));
+
+        // When
+        CompletableFuture<String> async = interceptor.executeAsync("localhost",
+                () -> CompletableFuture.completedFuture("12.5"));
+
+        // Then: la llamada asíncrona espera sin bloquear al que llama y sigue al liberarse la conexión
+        assertFalse(async.isDone());
+        blocking.close();
+        assertEquals("12.5", async.get(5, TimeUnit.SECONDS));
+        assertEquals(0, interceptor.getActiveConnections());
+        assertEquals(2, interceptor.getRequestCount());
+    }
+}
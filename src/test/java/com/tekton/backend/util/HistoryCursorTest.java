@@ -0,0 +1,30 @@
+package com.tekton.backend.util;
+
+import com.tekton.backend.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        // Given
+        HistoryCursor cursor = HistoryCursor.next(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000), 42L);
+
+        // When
+        HistoryCursor decoded = HistoryCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+        assertFalse(cursor.encode().contains("|"));
+    }
+
+    @Test
+    void testDecode_ThrowsException_WhenCursorIsTampered() {
+        assertThrows(InvalidCursorException.class, () -> HistoryCursor.decode("no-es-un-cursor"));
+        assertThrows(InvalidCursorException.class, () -> HistoryCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.tekton.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedRecordSpoolTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadReturnsRecordsInAppendOrder() throws IOException {
+        // Given
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            spool.append(bytes("uno"));
+            spool.append(bytes("dos"));
+            spool.append(bytes("tres"));
+
+            // When
+            List<MappedRecordSpool.Entry> first = spool.read(spool.start(), 2);
+            List<MappedRecordSpool.Entry> rest = spool.read(first.get(1).next(), 10);
+
+            // Then
+            assertEquals(List.of("uno", "dos"), text(first));
+            assertEquals(List.of("tres"), text(rest));
+            assertEquals(spool.end(), rest.get(0).next());
+            assertTrue(spool.read(spool.end(), 10).isEmpty());
+        }
+    }
+
+    @Test
+    void testAppendRollsToNewSegmentWhenFull() throws IOException {
+        // Given
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(spool.append(bytes("registro-" + i + "-" + "x".repeat(20))));
+            }
+
+            // When
+            List<MappedRecordSpool.Entry> entries = spool.read(spool.start(), 100);
+
+            // Then
+            assertTrue(segmentCount() > 1);
+            assertEquals(20, entries.size());
+            assertTrue(new String(entries.get(19).data(), StandardCharsets.UTF_8).startsWith("registro-19-"));
+        }
+    }
+
+    @Test
+    void testAppendRejectsRecordLargerThanSegment() throws IOException {
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            assertFalse(spool.append(new byte[SEGMENT_SIZE]));
+        }
+    }
+
+    @Test
+    void testReopenRecoversWritePosition() throws IOException {
+        // Given
+        MappedRecordSpool.Position end;
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            spool.append(bytes("antes"));
+            end = spool.end();
+        }
+
+        // When
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            spool.append(bytes("despues"));
+
+            // Then
+            assertEquals(List.of("antes", "despues"), text(spool.read(spool.start(), 10)));
+            assertEquals(List.of("despues"), text(spool.read(end, 10)));
+        }
+    }
+
+    @Test
+    void testDeleteSegmentsBeforeKeepsUnconsumedRecords() throws IOException {
+        // Given
+        try (MappedRecordSpool spool = new MappedRecordSpool(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(bytes("registro-" + i + "-" + "x".repeat(20)));
+            }
+            List<MappedRecordSpool.Entry> consumed = spool.read(spool.start(), 12);
+            MappedRecordSpool.Position checkpoint = consumed.get(consumed.size() - 1).next();
+
+            // When
+            spool.deleteSegmentsBefore(checkpoint.segment());
+            List<MappedRecordSpool.Entry> remaining = spool.read(checkpoint, 100);
+
+            // Then
+            assertEquals(checkpoint.segment(), spool.start().segment());
+            assertEquals(8, remaining.size());
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> text(List<MappedRecordSpool.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.data(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.tekton.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Double> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneExecution() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<Double>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    invocations.incrementAndGet();
+                    await(release);
+                    return 10.5;
+                })));
+            }
+            waitUntil(() -> singleFlight.getCoalescedCount() == callers - 1);
+            release.countDown();
+
+            // Then
+            for (Future<Double> result : results) {
+                assertEquals(10.5, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(1, singleFlight.getExecutionCount());
+        assertEquals(callers - 1, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testExecute_FailureIsPropagatedToAllCallers() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Double> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw new IllegalStateException("upstream down");
+            }));
+            waitUntil(() -> singleFlight.getExecutionCount() == 1);
+            Future<Double> follower = executor.submit(() -> singleFlight.execute("key", () -> 1.0));
+            waitUntil(() -> singleFlight.getCoalescedCount() == 1);
+
+            // When
+            release.countDown();
+
+            // Then
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_RunsAgainAfterPreviousCallCompletes() {
+        // When
+        Double first = singleFlight.execute("key", () -> 1.0);
+        Double second = singleFlight.execute("key", () -> 2.0);
+
+        // Then
+        assertEquals(1.0, first);
+        assertEquals(2.0, second);
+        assertEquals(2, singleFlight.getExecutionCount());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testExecuteAsync_CallersShareFutureUntilCompletion() {
+        // Given
+        CompletableFuture<Double> upstream = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<Double> first = singleFlight.executeAsync("key", () -> upstream);
+        CompletableFuture<Double> second = singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture(2.0));
+        upstream.complete(10.5);
+        CompletableFuture<Double> third = singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture(3.0));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(10.5, first.join());
+        assertEquals(3.0, third.join());
+        assertEquals(2, singleFlight.getExecutionCount());
+        assertEquals(1, singleFlight.getCoalescedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean(), "La condición no se cumplió a tiempo");
+    }
+}
@@ -0,0 +1,62 @@
+package com.tekton.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndContainTheirValues() {
+        for (int bucket = 0; bucket < StripedLatencyHistogram.BUCKETS - 1; bucket++) {
+            long lower = StripedLatencyHistogram.bucketLowerBound(bucket);
+            long upper = StripedLatencyHistogram.bucketUpperBound(bucket);
+            assertEquals(bucket, StripedLatencyHistogram.bucketIndex(lower));
+            assertEquals(bucket, StripedLatencyHistogram.bucketIndex(upper - 1));
+            // Ancho del rango acotado a 1/8 de su límite inferior
+            assertTrue(upper - lower <= Math.max(1, lower / 8), "bucket " + bucket);
+        }
+        assertEquals(StripedLatencyHistogram.BUCKETS - 1, StripedLatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        assertEquals(0, StripedLatencyHistogram.bucketIndex(-5));
+    }
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        // Given: 1..10000 µs, una vez cada uno
+        StripedLatencyHistogram histogram = new StripedLatencyHistogram(4);
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+        long[] counts = new long[StripedLatencyHistogram.BUCKETS];
+        histogram.addTo(counts);
+
+        // Then
+        assertEquals(5_000, StripedLatencyHistogram.percentile(counts, 10_000, 50), 5_000 / 16.0);
+        assertEquals(9_900, StripedLatencyHistogram.percentile(counts, 10_000, 99), 9_900 / 16.0);
+        assertEquals(9_990, StripedLatencyHistogram.percentile(counts, 10_000, 99.9), 9_990 / 16.0);
+        assertEquals(0, StripedLatencyHistogram.percentile(new long[StripedLatencyHistogram.BUCKETS], 0, 50));
+    }
+
+    @Test
+    void testConcurrentRecordsAreNotLost() {
+        // Given
+        StripedLatencyHistogram histogram = new StripedLatencyHistogram(4);
+
+        // When
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i % 500);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        long[] counts = new long[StripedLatencyHistogram.BUCKETS];
+        histogram.addTo(counts);
+        assertEquals(80_000, IntStream.range(0, counts.length).mapToLong(i -> counts[i]).sum());
+    }
+}